@@ -0,0 +1,98 @@
+package com.blog.bench;
+
+import com.blog.model.Post;
+import com.blog.model.User;
+import com.blog.util.SyntheticContent;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic fake posts for benchmarks. A fixed set of HTML bodies is generated once
+ * by SyntheticContent, the generator behind the seed data, and shared. Posts are created
+ * lazily as they are iterated, the way the database cursor hands them to the exporters,
+ * so 100k posts never sit in memory at once.
+ */
+public final class SyntheticPosts {
+    
+    // Tags are drawn from the first few topic names, so exports see the same few repeatedly
+    private static final int TAG_TOPICS = 8;
+    private static final int BODY_VARIANTS = 64;
+    
+    private final Post[] templates = new Post[BODY_VARIANTS];
+    
+    public SyntheticPosts(long seed, int averageWords) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < BODY_VARIANTS; i++) {
+            Post template = new Post();
+            template.setTitle(SyntheticContent.title(random));
+            template.setSummary(random.nextBoolean() ? SyntheticContent.summary(random) : null);
+            template.setContent(SyntheticContent.htmlWithWords(random, averageWords / 2 + random.nextInt(averageWords + 1)));
+            template.setTags(tags(random));
+            template.refreshContentStats();
+            templates[i] = template;
+        }
+    }
+    
+    public static User author(long id) {
+        User author = new User("author" + id, "author" + id + "@example.com", "{noop}password", "Bench", "Author " + id);
+        author.setId(id);
+        author.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        author.setUpdatedAt(author.getCreatedAt());
+        return author;
+    }
+    
+    public Post post(long id, User author) {
+        Post template = templates[(int) (id % BODY_VARIANTS)];
+        Post post = new Post(template.getTitle() + " #" + id, template.getContent(), author);
+        post.setId(id);
+        post.setSummary(template.getSummary());
+        post.setTags(template.getTags());
+        post.setIsPublished(id % 4 != 0);
+        post.setWordCount(template.getWordCount());
+        post.setCharCount(template.getCharCount());
+        post.setExcerpt(template.getExcerpt());
+        post.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id));
+        post.setUpdatedAt(post.getCreatedAt());
+        return post;
+    }
+    
+    // A raw body, stats not yet computed, for the per-post helper benchmarks
+    public Post unprocessedPost(int variant) {
+        Post template = templates[variant % BODY_VARIANTS];
+        Post post = new Post(template.getTitle(), template.getContent(), null);
+        post.setTags(template.getTags());
+        return post;
+    }
+    
+    public Iterator<Post> posts(User author, int count) {
+        return new Iterator<>() {
+            private long next = 1;
+            
+            @Override
+            public boolean hasNext() {
+                return next <= count;
+            }
+            
+            @Override
+            public Post next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return post(next++, author);
+            }
+        };
+    }
+    
+    private static String tags(SplittableRandom random) {
+        int count = random.nextInt(4);
+        StringBuilder tags = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) tags.append(", ");
+            tags.append(SyntheticContent.tagName(random.nextInt(TAG_TOPICS)));
+        }
+        return tags.toString();
+    }
+}
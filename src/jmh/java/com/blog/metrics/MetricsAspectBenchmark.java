@@ -0,0 +1,68 @@
+package com.blog.metrics;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.repository.Repository;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+// Cost the metrics aspect adds to a call, against the same call with no proxy at all
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsAspectBenchmark {
+    
+    // Matches the aspect's repository pointcut
+    public interface LookupRepository extends Repository<Object, Long> {
+        long findScore(long id);
+    }
+    
+    public static class InMemoryLookupRepository implements LookupRepository {
+        @Override
+        public long findScore(long id) {
+            return id * 31 + 7;
+        }
+    }
+    
+    private LookupRepository direct;
+    private LookupRepository timed;
+    private long id;
+    
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        MetricsAspect aspect = new MetricsAspect();
+        Field registry = MetricsAspect.class.getDeclaredField("meterRegistry");
+        registry.setAccessible(true);
+        registry.set(aspect, new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        
+        direct = new InMemoryLookupRepository();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new InMemoryLookupRepository());
+        factory.addAspect(aspect);
+        timed = factory.getProxy();
+    }
+    
+    @Benchmark
+    public long direct() {
+        return direct.findScore(id++);
+    }
+    
+    @Benchmark
+    public long timed() {
+        return timed.findScore(id++);
+    }
+}
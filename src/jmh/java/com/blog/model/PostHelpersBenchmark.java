@@ -0,0 +1,51 @@
+package com.blog.model;
+
+import com.blog.bench.SyntheticPosts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Helpers the templates call once per post card
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostHelpersBenchmark {
+    
+    @Param({ "100", "1000", "10000" })
+    public int averageWords;
+    
+    private Post storedStats;
+    private Post legacyRow;
+    
+    @Setup
+    public void setUp() {
+        SyntheticPosts posts = new SyntheticPosts(42, averageWords);
+        storedStats = posts.post(3, SyntheticPosts.author(1));
+        // Rows written before the stats columns existed derive the excerpt on every call
+        legacyRow = posts.unprocessedPost(3);
+    }
+    
+    @Benchmark
+    public String shortContentFromStoredExcerpt() {
+        return storedStats.getShortContent(150);
+    }
+    
+    @Benchmark
+    public String shortContentFromRawContent() {
+        return legacyRow.getShortContent(150);
+    }
+    
+    @Benchmark
+    public String[] tagArray() {
+        return storedStats.getTagArray();
+    }
+}
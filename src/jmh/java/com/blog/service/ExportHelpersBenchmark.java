@@ -0,0 +1,103 @@
+package com.blog.service;
+
+import com.blog.bench.SyntheticPosts;
+import com.blog.model.Post;
+import com.blog.util.HtmlText;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Per-post text helpers used by every export: HTML stripping, word counting and escaping.
+// The *Regex methods keep the old replaceAll/split implementation as a baseline for HtmlText.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportHelpersBenchmark {
+    
+    @Param({ "100", "1000", "10000" })
+    public int averageWords;
+    
+    private String content;
+    // Short inline-formatted paragraphs, where the per-tag cost dominates
+    private String tagDenseContent;
+    private String title;
+    private Post post;
+    
+    @Setup
+    public void setUp() {
+        SyntheticPosts posts = new SyntheticPosts(42, averageWords);
+        post = posts.unprocessedPost(7);
+        content = post.getContent();
+        title = post.getTitle() + " <b>&</b> \"quoted\"";
+        StringBuilder tagDense = new StringBuilder();
+        while (tagDense.length() < content.length()) {
+            tagDense.append("<p>Lorem <em>ipsum</em> dolor <a href=\"/posts/1\">sit</a> amet, consectetur.</p>\n");
+        }
+        tagDenseContent = tagDense.toString();
+    }
+    
+    @Benchmark
+    public String stripHtml() {
+        return ExportService.stripHtml(content);
+    }
+    
+    @Benchmark
+    public String stripHtmlRegex() {
+        return content.replaceAll("<[^>]*>", "");
+    }
+    
+    @Benchmark
+    public String escapeHtml() {
+        return ExportService.escapeHtml(title);
+    }
+    
+    @Benchmark
+    public String escapeHtmlContent() {
+        return ExportService.escapeHtml(content);
+    }
+    
+    // Plain text, word count, char count and excerpt in one call
+    @Benchmark
+    public Integer contentStats() {
+        post.refreshContentStats();
+        return post.getWordCount();
+    }
+    
+    // Same figures from a single scanner pass, without touching the entity
+    @Benchmark
+    public HtmlText.Stats contentStatsScan() {
+        return HtmlText.analyze(content, Post.EXCERPT_LENGTH);
+    }
+    
+    @Benchmark
+    public HtmlText.Stats contentStatsScanTagDense() {
+        return HtmlText.analyze(tagDenseContent, Post.EXCERPT_LENGTH);
+    }
+    
+    @Benchmark
+    public String contentStatsRegex() {
+        return contentStatsRegex(content);
+    }
+    
+    @Benchmark
+    public String contentStatsRegexTagDense() {
+        return contentStatsRegex(tagDenseContent);
+    }
+    
+    private static String contentStatsRegex(String content) {
+        String plainText = content.replaceAll("<[^>]*>", "").trim();
+        int words = plainText.isEmpty() ? 0 : plainText.split("\\s+").length;
+        String collapsed = plainText.replaceAll("\\s+", " ");
+        String excerpt = collapsed.length() > Post.EXCERPT_LENGTH ? collapsed.substring(0, Post.EXCERPT_LENGTH) : collapsed;
+        return words + ":" + plainText.length() + ":" + excerpt;
+    }
+}
\ No newline at end of file
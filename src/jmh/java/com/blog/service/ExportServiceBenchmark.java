@@ -0,0 +1,109 @@
+package com.blog.service;
+
+import com.blog.bench.SyntheticPosts;
+import com.blog.model.Post;
+import com.blog.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Whole bulk exports for one author, fed from a synthetic post iterator instead of the
+ * database cursor, written to a counting sink. Measures rendering only, not JDBC.
+ * The 100k PDF case takes minutes per operation; the PDF is rendered pdfChunkSize posts at
+ * a time, so its heap use follows the chunk size rather than the post count.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class ExportServiceBenchmark {
+    
+    @Param({ "100", "10000", "100000" })
+    public int postCount;
+    
+    @Param({ "50" })
+    public int pdfChunkSize;
+    
+    // Threads converting PDF chunks; 0 converts on the benchmark thread
+    @Param({ "0", "4" })
+    public int pdfRenderThreads;
+    
+    private final ExportService exportService = new ExportService();
+    private SyntheticPosts syntheticPosts;
+    private User author;
+    private ForkJoinPool renderPool;
+    
+    @Setup
+    public void setUp() {
+        syntheticPosts = new SyntheticPosts(42, 600);
+        author = SyntheticPosts.author(1);
+        renderPool = pdfRenderThreads > 0 ? new ForkJoinPool(pdfRenderThreads) : null;
+    }
+    
+    @TearDown
+    public void tearDown() {
+        if (renderPool != null) {
+            renderPool.shutdownNow();
+        }
+    }
+    
+    @Benchmark
+    public long exportPostsToExcel(Blackhole blackhole) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        exportService.writeExcel(syntheticPosts.posts(author, postCount), out, consume(blackhole));
+        return out.count;
+    }
+    
+    @Benchmark
+    public long exportPostsToCSV(Blackhole blackhole) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        exportService.writeCsv(syntheticPosts.posts(author, postCount), out, consume(blackhole));
+        return out.count;
+    }
+    
+    @Benchmark
+    public long exportPostsToPdf(Blackhole blackhole) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        exportService.writePdf(author.getFullName(), author.getUpdatedAt(), syntheticPosts.posts(author, postCount), out,
+                pdfChunkSize, renderPool, consume(blackhole));
+        return out.count;
+    }
+    
+    private static Consumer<Post> consume(Blackhole blackhole) {
+        return blackhole::consume;
+    }
+    
+    // Discards the bytes but keeps the size, so the work cannot be optimised away
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+        
+        @Override
+        public void write(int b) {
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
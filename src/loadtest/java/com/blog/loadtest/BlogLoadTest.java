@@ -0,0 +1,397 @@
+package com.blog.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scripted, closed-loop load test of the main user journeys against data made by the seed
+ * generator (start the application with blog.seed.enabled=true on an empty database):
+ *
+ *   java src/loadtest/java/com/blog/loadtest/BlogLoadTest.java \
+ *        baseUrl=http://localhost:8080 clients=50 seconds=60 warmup=10 label=baseline out=loadtest.csv
+ *
+ * Each client logs in as one of the seeded users, collects post ids from its dashboard, then
+ * repeatedly picks a scenario from the weighted mix and waits for the full response before
+ * the next request. Per-scenario p50/p95/p99 latency and throughput are printed at the end,
+ * counting only requests sent after the warm-up; with out= they are also appended as CSV rows,
+ * so runs before and after a change can be compared directly.
+ *
+ * With paths= the clients skip the journeys and the login, and request the listed paths
+ * round-robin instead. That is the setup for comparing platform and virtual request threads:
+ * start the application once with blog.threads.virtual=false and once with =true, and run
+ *
+ *   java src/loadtest/java/com/blog/loadtest/BlogLoadTest.java \
+ *        clients=400 seconds=60 paths=/posts/1,/posts/2,/search label=virtual out=threads.csv
+ *
+ * against each; throughput only rises if the server can keep more requests in flight.
+ *
+ * Options (key=value): baseUrl, clients (50), seconds (60), warmup (10), users (100),
+ * password (loadtest), mix (dashboard=30,search=25,view=35,export=5,login=5),
+ * keywords (cache,query,thread,latency,export), export (/export/posts/csv), paths (none),
+ * seed (42), label (run), out (none).
+ */
+public class BlogLoadTest {
+
+    private static final Pattern POST_LINK = Pattern.compile("href=\"/posts/(\\d+)\"");
+    private static final String[] SCENARIOS = { "login", "dashboard", "search", "view", "export", "paths" };
+    // The fixed-path scenario, used instead of the mix when paths= is given
+    private static final int PATHS = 5;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("baseUrl", "http://localhost:8080");
+        options.put("clients", "50");
+        options.put("seconds", "60");
+        options.put("warmup", "10");
+        options.put("users", "100");
+        options.put("password", "loadtest");
+        options.put("mix", "dashboard=30,search=25,view=35,export=5,login=5");
+        options.put("keywords", "cache,query,thread,latency,export");
+        options.put("export", "/export/posts/csv");
+        options.put("paths", "");
+        options.put("seed", "42");
+        options.put("label", "run");
+        options.put("out", "");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0 || !options.containsKey(arg.substring(0, eq))) {
+                System.err.println("Unknown option " + arg + "; expected key=value with key in " + options.keySet());
+                System.exit(2);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        Config config = new Config(options);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+
+        long start = System.nanoTime();
+        long recordFrom = start + Duration.ofSeconds(config.warmupSeconds).toNanos();
+        long deadline = recordFrom + Duration.ofSeconds(config.seconds).toNanos();
+        List<Future<ClientResult>> futures = new ArrayList<>();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.clients; i++) {
+                int clientIndex = i;
+                futures.add(workers.submit(() -> new VirtualUser(client, config, clientIndex).run(recordFrom, deadline)));
+            }
+        }
+        double measuredSeconds = (System.nanoTime() - recordFrom) / 1e9;
+
+        Stats[] totals = new Stats[SCENARIOS.length];
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = new Stats();
+        }
+        for (Future<ClientResult> future : futures) {
+            ClientResult result = future.get();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i].add(result.stats[i]);
+            }
+        }
+        Stats all = new Stats();
+        for (Stats stats : totals) {
+            all.add(stats);
+        }
+
+        List<String> rows = new ArrayList<>();
+        System.out.printf("label=%s clients=%d measured=%.1fs warmup=%ds%n",
+                config.label, config.clients, measuredSeconds, config.warmupSeconds);
+        System.out.printf("%-10s %8s %7s %9s %9s %9s %9s %9s%n",
+                "scenario", "ok", "failed", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (int i = 0; i < SCENARIOS.length; i++) {
+            if (totals[i].ok + totals[i].failed > 0) {
+                rows.add(report(config.label, SCENARIOS[i], totals[i], measuredSeconds));
+            }
+        }
+        rows.add(report(config.label, "all", all, measuredSeconds));
+
+        if (!config.out.isEmpty()) {
+            Path out = Path.of(config.out);
+            if (!Files.exists(out)) {
+                Files.writeString(out, "timestamp,label,scenario,ok,failed,throughput,p50_ms,p95_ms,p99_ms,max_ms\n");
+            }
+            String timestamp = Instant.now().toString();
+            StringBuilder csv = new StringBuilder();
+            for (String row : rows) {
+                csv.append(timestamp).append(',').append(row).append('\n');
+            }
+            Files.writeString(out, csv, StandardOpenOption.APPEND);
+        }
+    }
+
+    // Prints one table line and returns the same figures as a CSV row
+    private static String report(String label, String scenario, Stats stats, double seconds) {
+        long[] sorted = stats.sortedLatencies();
+        double throughput = stats.ok / seconds;
+        double max = sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6;
+        System.out.printf("%-10s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", scenario, stats.ok, stats.failed,
+                throughput, percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), max);
+        return String.format("%s,%s,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f", label, scenario, stats.ok, stats.failed,
+                throughput, percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), max);
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) return 0.0;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class Config {
+        final String baseUrl;
+        final int clients;
+        final long seconds;
+        final long warmupSeconds;
+        final int users;
+        final String password;
+        final int[] weights = new int[SCENARIOS.length];
+        final int totalWeight;
+        final String[] keywords;
+        final String exportPath;
+        final String[] paths;
+        final long seed;
+        final String label;
+        final String out;
+
+        Config(Map<String, String> options) {
+            baseUrl = options.get("baseUrl");
+            clients = Integer.parseInt(options.get("clients"));
+            seconds = Long.parseLong(options.get("seconds"));
+            warmupSeconds = Long.parseLong(options.get("warmup"));
+            users = Integer.parseInt(options.get("users"));
+            password = options.get("password");
+            keywords = options.get("keywords").split(",");
+            exportPath = options.get("export");
+            paths = options.get("paths").isEmpty() ? new String[0] : options.get("paths").split(",");
+            seed = Long.parseLong(options.get("seed"));
+            label = options.get("label");
+            out = options.get("out");
+
+            int sum = 0;
+            for (String entry : options.get("mix").split(",")) {
+                String[] parts = entry.split("=");
+                int scenario = Arrays.asList(SCENARIOS).subList(0, PATHS).indexOf(parts[0].trim());
+                if (parts.length != 2 || scenario < 0) {
+                    throw new IllegalArgumentException("Bad mix entry " + entry + "; scenarios are "
+                            + Arrays.toString(Arrays.copyOf(SCENARIOS, PATHS)));
+                }
+                weights[scenario] = Integer.parseInt(parts[1].trim());
+                sum += weights[scenario];
+            }
+            if (sum <= 0) {
+                throw new IllegalArgumentException("The mix needs at least one positive weight");
+            }
+            totalWeight = sum;
+        }
+    }
+
+    /**
+     * One simulated user with its own session cookies. Clients are spread over the seeded
+     * users round-robin, and each draws its scenarios from its own seeded random sequence.
+     * In paths mode each client starts at a different path, so all of them are busy at once.
+     */
+    private static final class VirtualUser {
+        private final HttpClient client;
+        private final Config config;
+        private final String username;
+        private final SplittableRandom random;
+        private final Map<String, String> cookies = new LinkedHashMap<>();
+        private final List<Long> postIds = new ArrayList<>();
+        private final ClientResult result = new ClientResult();
+        private int nextPath;
+
+        VirtualUser(HttpClient client, Config config, int index) {
+            this.client = client;
+            this.config = config;
+            this.username = "seed-user-" + (index % Math.max(1, config.users) + 1);
+            this.random = new SplittableRandom(config.seed + index);
+            this.nextPath = index;
+        }
+
+        ClientResult run(long recordFrom, long deadline) {
+            boolean fixedPaths = config.paths.length > 0;
+            // The first login and dashboard set up the session and post ids; they are never recorded
+            try {
+                if (!fixedPaths) {
+                    login();
+                    dashboard();
+                }
+            } catch (Exception e) {
+                // A client that cannot log in shows up as one failed login and sits the run out
+                result.stats[0].failed++;
+                return result;
+            }
+            while (System.nanoTime() < deadline) {
+                int scenario = fixedPaths ? PATHS : pickScenario();
+                long sent = System.nanoTime();
+                boolean ok;
+                try {
+                    ok = switch (SCENARIOS[scenario]) {
+                        case "login" -> login();
+                        case "dashboard" -> dashboard();
+                        case "search" -> search();
+                        case "view" -> view();
+                        case "export" -> export();
+                        default -> get(config.paths[nextPath++ % config.paths.length]);
+                    };
+                } catch (Exception e) {
+                    ok = false;
+                }
+                if (sent >= recordFrom) {
+                    Stats stats = result.stats[scenario];
+                    if (ok) {
+                        stats.ok++;
+                        stats.record(System.nanoTime() - sent);
+                    } else {
+                        stats.failed++;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private int pickScenario() {
+            int roll = random.nextInt(config.totalWeight);
+            for (int i = 0; i < config.weights.length; i++) {
+                roll -= config.weights[i];
+                if (roll < 0) return i;
+            }
+            return config.weights.length - 1;
+        }
+
+        // A successful login redirects to the dashboard; a failed one back to the login form
+        private boolean login() throws IOException, InterruptedException {
+            String form = "username=" + encode(username) + "&password=" + encode(config.password);
+            HttpResponse<Void> response = send(request("/auth/login")
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form)), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 302
+                    && response.headers().firstValue("Location").orElse("").endsWith("/dashboard");
+        }
+
+        private boolean dashboard() throws IOException, InterruptedException {
+            HttpResponse<String> response = send(request("/dashboard").GET(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) return false;
+            if (postIds.isEmpty()) {
+                Matcher matcher = POST_LINK.matcher(response.body());
+                while (matcher.find()) {
+                    Long id = Long.valueOf(matcher.group(1));
+                    if (!postIds.contains(id)) postIds.add(id);
+                }
+            }
+            return true;
+        }
+
+        private boolean search() throws IOException, InterruptedException {
+            String keyword = config.keywords[random.nextInt(config.keywords.length)];
+            return get("/search?keyword=" + encode(keyword));
+        }
+
+        // Users with no posts yet fall back to their dashboard
+        private boolean view() throws IOException, InterruptedException {
+            if (postIds.isEmpty()) return dashboard();
+            return get("/posts/" + postIds.get(random.nextInt(postIds.size())));
+        }
+
+        private boolean export() throws IOException, InterruptedException {
+            return get(config.exportPath);
+        }
+
+        private boolean get(String path) throws IOException, InterruptedException {
+            return send(request(path).GET(), HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+        }
+
+        private HttpRequest.Builder request(String path) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(config.baseUrl + path))
+                    .timeout(Duration.ofSeconds(60));
+            if (!cookies.isEmpty()) {
+                StringBuilder header = new StringBuilder();
+                for (Map.Entry<String, String> cookie : cookies.entrySet()) {
+                    if (header.length() > 0) header.append("; ");
+                    header.append(cookie.getKey()).append('=').append(cookie.getValue());
+                }
+                builder.header("Cookie", header.toString());
+            }
+            return builder;
+        }
+
+        // Keeps whatever session cookie the server hands out, whichever store is configured
+        private <T> HttpResponse<T> send(HttpRequest.Builder builder, HttpResponse.BodyHandler<T> handler)
+                throws IOException, InterruptedException {
+            HttpResponse<T> response = client.send(builder.build(), handler);
+            for (String setCookie : response.headers().allValues("Set-Cookie")) {
+                String pair = setCookie.split(";", 2)[0];
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    cookies.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+                }
+            }
+            return response;
+        }
+
+        private static String encode(String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class ClientResult {
+        final Stats[] stats = new Stats[SCENARIOS.length];
+
+        ClientResult() {
+            for (int i = 0; i < stats.length; i++) {
+                stats[i] = new Stats();
+            }
+        }
+    }
+
+    private static final class Stats {
+        long ok;
+        long failed;
+        long[] latencies = new long[256];
+        int count;
+
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        void add(Stats other) {
+            ok += other.ok;
+            failed += other.failed;
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+        }
+
+        long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.blog.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Small in-process LRU cache with a size bound and a time-to-live per entry.
+ * Loads run outside the lock, so a slow database read never blocks other lookups.
+ */
+public class BoundedCache<K, V> {
+    
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    // Bumped by every invalidation so a load that raced with one is not cached
+    private long generation;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong totalLoadNanos = new AtomicLong();
+    
+    public BoundedCache(String name, int maxSize, Duration ttl) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+    
+    /**
+     * Returns the cached value, or loads, caches and returns it. A {@code null} from the
+     * loader is returned as-is and not cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long now = System.nanoTime();
+        long loadGeneration;
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.loadedAt < ttlNanos) {
+                    hits.incrementAndGet();
+                    return entry.value;
+                }
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+        
+        misses.incrementAndGet();
+        long start = System.nanoTime();
+        V value = loader.apply(key);
+        long loadedAt = System.nanoTime();
+        loads.incrementAndGet();
+        totalLoadNanos.addAndGet(loadedAt - start);
+        
+        if (value != null) {
+            put(key, value, loadedAt, loadGeneration);
+        }
+        return value;
+    }
+    
+    // Cached value or null; never loads and does not count as a hit or miss
+    public V getIfPresent(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            return entry != null && System.nanoTime() - entry.loadedAt < ttlNanos ? entry.value : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+            generation++;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void invalidateIf(Predicate<K> predicate) {
+        lock.lock();
+        try {
+            entries.keySet().removeIf(predicate);
+            generation++;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            generation++;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void put(K key, V value, long loadedAt, long loadGeneration) {
+        lock.lock();
+        try {
+            if (loadGeneration != generation) {
+                return;
+            }
+            entries.put(key, new Entry<>(value, loadedAt));
+            Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+    
+    public double getAverageLoadMillis() {
+        long count = loads.get();
+        return count == 0 ? 0.0 : totalLoadNanos.get() / 1_000_000.0 / count;
+    }
+    
+    // Getters
+    public String getName() { return name; }
+    public int getMaxSize() { return maxSize; }
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+    public long getLoads() { return loads.get(); }
+    
+    private static final class Entry<V> {
+        final V value;
+        final long loadedAt;
+        
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.blog.config;
+
+import com.blog.cache.BoundedCache;
+import com.blog.dto.PostCardSlice;
+import com.blog.dto.PostSetVersion;
+import com.blog.model.Post;
+import com.blog.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+    
+    @Bean
+    public BoundedCache<Long, Post> postCache(@Value("${blog.cache.posts.max-size:2000}") int maxSize,
+                                              @Value("${blog.cache.posts.ttl-seconds:300}") long ttlSeconds) {
+        return new BoundedCache<>("posts", maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+    
+    @Bean
+    public BoundedCache<Long, User> userByIdCache(@Value("${blog.cache.users.max-size:5000}") int maxSize,
+                                                  @Value("${blog.cache.users.ttl-seconds:600}") long ttlSeconds) {
+        return new BoundedCache<>("usersById", maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+    
+    @Bean
+    public BoundedCache<String, User> userByUsernameCache(@Value("${blog.cache.users.max-size:5000}") int maxSize,
+                                                          @Value("${blog.cache.users.ttl-seconds:600}") long ttlSeconds) {
+        return new BoundedCache<>("usersByUsername", maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+    
+    // First page of the published feed, keyed by page size
+    @Bean
+    public BoundedCache<Integer, PostCardSlice> feedCache(@Value("${blog.cache.feed.max-size:50}") int maxSize,
+                                                  @Value("${blog.cache.feed.ttl-seconds:30}") long ttlSeconds) {
+        return new BoundedCache<>("publishedFeed", maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+    
+    // Post count and latest update per author id, for the dashboard total and export cache keys.
+    // Evicted on this node's writes; the short TTL bounds how long another node's go unseen
+    @Bean
+    public BoundedCache<Long, PostSetVersion> postSetVersionCache(@Value("${blog.cache.post-sets.max-size:5000}") int maxSize,
+                                                                  @Value("${blog.cache.post-sets.ttl-seconds:60}") long ttlSeconds) {
+        return new BoundedCache<>("postSetVersions", maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+}
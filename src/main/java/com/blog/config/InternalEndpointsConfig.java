@@ -0,0 +1,55 @@
+package com.blog.config;
+
+import com.blog.metrics.InternalEndpointFilter;
+import org.apache.catalina.connector.Connector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Operational endpoints (the Prometheus scrape and the cache, export cache and password
+ * hashing statistics) are served on a second connector, blog.internal.port, bound to
+ * blog.internal.address so it can stay off the public network. On the public port they
+ * answer 404. The connector is opt-in: with no port set there is none, and the endpoints
+ * answer 404 everywhere. Port 0 binds an ephemeral port, which Tomcat logs at startup.
+ */
+@Configuration
+public class InternalEndpointsConfig {
+    
+    @Value("${blog.internal.port:}")
+    private Integer internalPort;
+    
+    private volatile Connector connector;
+    
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> internalConnector(
+            @Value("${blog.internal.address:127.0.0.1}") String address) {
+        if (internalPort != null && internalPort < 0) {
+            throw new IllegalArgumentException("blog.internal.port must be 0 or a port number, got " + internalPort);
+        }
+        return factory -> {
+            if (internalPort == null) {
+                return;
+            }
+            Connector internal = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+            internal.setPort(internalPort);
+            internal.setProperty("address", address);
+            factory.addAdditionalTomcatConnectors(internal);
+            connector = internal;
+        };
+    }
+    
+    // Ahead of the session filter, so a rejected request never loads a session. The bound
+    // port is read from the connector, as port 0 is only resolved when it starts
+    @Bean
+    public FilterRegistrationBean<InternalEndpointFilter> internalEndpointFilter() {
+        FilterRegistrationBean<InternalEndpointFilter> registration = new FilterRegistrationBean<>(
+                new InternalEndpointFilter(() -> connector != null ? connector.getLocalPort() : -1));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,17 @@
+package com.blog.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class PasswordConfig {
+    
+    // Raising the strength makes existing hashes report upgradeEncoding, so they are rehashed on next login
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${blog.security.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+}
@@ -0,0 +1,59 @@
+package com.blog.config;
+
+import com.blog.session.FileSessionStore;
+import com.blog.session.JdbcSessionStore;
+import com.blog.session.SessionRepositoryFilter;
+import com.blog.session.SessionStore;
+import com.blog.session.SharedSessionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Shared sessions, selected with blog.session.store: "jdbc" keeps them in the application
+ * database, "file" in a local directory. Unset, the servlet container's sessions are used.
+ */
+@Configuration
+@ConditionalOnProperty(name = "blog.session.store")
+public class SessionConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "blog.session.store", havingValue = "jdbc")
+    public SessionStore jdbcSessionStore(JdbcTemplate jdbcTemplate) {
+        JdbcSessionStore store = new JdbcSessionStore(jdbcTemplate);
+        store.createTableIfMissing();
+        return store;
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "blog.session.store", havingValue = "file")
+    public SessionStore fileSessionStore(@Value("${blog.session.file-dir:${java.io.tmpdir}/blog-sessions}") String directory)
+            throws IOException {
+        return new FileSessionStore(Paths.get(directory));
+    }
+    
+    @Bean
+    public SharedSessionManager sharedSessionManager(SessionStore sessionStore,
+                                                     @Value("${blog.session.timeout-seconds:1800}") int timeoutSeconds,
+                                                     @Value("${blog.session.cleanup-batch-size:500}") int cleanupBatchSize) {
+        return new SharedSessionManager(sessionStore, timeoutSeconds, cleanupBatchSize);
+    }
+    
+    // Ahead of every other filter so nothing sees the container's own session
+    @Bean
+    public FilterRegistrationBean<SessionRepositoryFilter> sessionRepositoryFilter(
+            SharedSessionManager sessionManager,
+            @Value("${blog.session.cookie-name:BLOGSESSION}") String cookieName) {
+        FilterRegistrationBean<SessionRepositoryFilter> registration =
+                new FilterRegistrationBean<>(new SessionRepositoryFilter(sessionManager, cookieName));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 50);
+        return registration;
+    }
+}
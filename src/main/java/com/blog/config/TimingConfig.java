@@ -0,0 +1,47 @@
+package com.blog.config;
+
+import com.blog.metrics.JdbcTimingListener;
+import com.blog.metrics.RequestTimingFilter;
+import com.blog.metrics.RequestTimingInterceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Per-request timing breakdown (handler, JDBC, view rendering, export) reported in a
+ * Server-Timing header and a sampled slow-request log. On by default; blog.timing.enabled=false
+ * removes the filter, interceptor and Hibernate listener entirely.
+ */
+@Configuration
+@ConditionalOnProperty(name = "blog.timing.enabled", havingValue = "true", matchIfMissing = true)
+public class TimingConfig implements WebMvcConfigurer {
+    
+    // Outside the session filter so its time is part of the total
+    @Bean
+    public FilterRegistrationBean<RequestTimingFilter> requestTimingFilter(
+            @Value("${blog.timing.slow-request-ms:1000}") long slowRequestMillis,
+            @Value("${blog.timing.slow-log-sample-rate:1.0}") double slowLogSampleRate,
+            @Value("${blog.timing.max-held-page-kb:64}") int maxHeldPageKb) {
+        FilterRegistrationBean<RequestTimingFilter> registration = new FilterRegistrationBean<>(
+                new RequestTimingFilter(slowRequestMillis, slowLogSampleRate, maxHeldPageKb * 1024));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer jdbcTimingListener() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimingListener.class.getName());
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestTimingInterceptor());
+    }
+}
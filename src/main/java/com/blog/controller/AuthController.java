@@ -1,16 +1,25 @@
 package com.blog.controller;
 
+import com.blog.dto.SessionUser;
 import com.blog.dto.UserDto;
 import com.blog.model.User;
+import com.blog.service.ServiceBusyException;
+import com.blog.service.UserAvailabilityService;
 import com.blog.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 @Controller
@@ -20,9 +29,15 @@ public class AuthController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private UserAvailabilityService userAvailabilityService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     @GetMapping("/login")
     public String showLoginPage(Model model, HttpSession session) {
-        if (session.getAttribute("user") != null) {
+        if (session.getAttribute(SessionUser.SESSION_ATTRIBUTE) != null) {
             return "redirect:/dashboard";
         }
         return "login";
@@ -32,40 +47,61 @@ public class AuthController {
     public String processLogin(@RequestParam String username,
                               @RequestParam String password,
                               HttpSession session,
+                              HttpServletRequest request,
+                              HttpServletResponse response,
+                              Model model,
                               RedirectAttributes redirectAttributes) {
         try {
             Optional<User> userOptional = userService.findByUsername(username);
             
             if (userOptional.isEmpty()) {
+                countLogin("unknown_user");
                 redirectAttributes.addFlashAttribute("error", "Invalid username or password");
                 return "redirect:/auth/login";
             }
             
             User user = userOptional.get();
             
-            if (!userService.validatePassword(password, user.getPassword())) {
+            if (!userService.checkPassword(user, password)) {
+                countLogin("bad_password");
                 redirectAttributes.addFlashAttribute("error", "Invalid username or password");
                 return "redirect:/auth/login";
             }
             
             if (!user.getIsActive()) {
+                countLogin("inactive");
                 redirectAttributes.addFlashAttribute("error", "Account is deactivated");
                 return "redirect:/auth/login";
             }
             
-            session.setAttribute("user", user);
+            // A fresh id on sign-in, so an id planted before the login is worth nothing after it.
+            // The shared session store hands out a new session object for the new id.
+            request.changeSessionId();
+            request.getSession().setAttribute(SessionUser.SESSION_ATTRIBUTE, SessionUser.from(user));
+            countLogin("success");
             redirectAttributes.addFlashAttribute("success", "Welcome back, " + user.getFullName() + "!");
             return "redirect:/dashboard";
             
+        } catch (ServiceBusyException e) {
+            countLogin("busy");
+            markServiceBusy(response);
+            model.addAttribute("error", e.getMessage());
+            return "login";
         } catch (Exception e) {
+            countLogin("error");
             redirectAttributes.addFlashAttribute("error", "Login failed. Please try again.");
             return "redirect:/auth/login";
         }
     }
     
+    // Every outcome other than "success" is a failed login
+    private void countLogin(String outcome) {
+        meterRegistry.counter("blog.auth.logins", "outcome", outcome).increment();
+    }
+    
     @GetMapping("/register")
     public String showRegistrationPage(Model model, HttpSession session) {
-        if (session.getAttribute("user") != null) {
+        if (session.getAttribute(SessionUser.SESSION_ATTRIBUTE) != null) {
             return "redirect:/dashboard";
         }
         model.addAttribute("userDto", new UserDto());
@@ -75,6 +111,7 @@ public class AuthController {
     @PostMapping("/register")
     public String processRegistration(@Valid @ModelAttribute("userDto") UserDto userDto,
                                     BindingResult result,
+                                    HttpServletResponse response,
                                     RedirectAttributes redirectAttributes) {
         
         if (result.hasErrors()) {
@@ -96,6 +133,10 @@ public class AuthController {
         } catch (IllegalArgumentException e) {
             result.rejectValue("username", "error.username", e.getMessage());
             return "register";
+        } catch (ServiceBusyException e) {
+            markServiceBusy(response);
+            result.rejectValue("username", "error.general", e.getMessage());
+            return "register";
         } catch (Exception e) {
             result.rejectValue("username", "error.general", 
                              "Registration failed. Please try again.");
@@ -103,6 +144,27 @@ public class AuthController {
         }
     }
     
+    // Password hashing is saturated: re-show the form with a 503 so clients and proxies back off
+    private void markServiceBusy(HttpServletResponse response) {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+    }
+    
+    // Live check for the registration form; answers only for the fields that were sent
+    @GetMapping("/availability")
+    @ResponseBody
+    public Map<String, Boolean> checkAvailability(@RequestParam(required = false) String username,
+                                                  @RequestParam(required = false) String email) {
+        Map<String, Boolean> availability = new LinkedHashMap<>();
+        if (username != null && !username.isBlank()) {
+            availability.put("username", !userAvailabilityService.isUsernameTaken(username));
+        }
+        if (email != null && !email.isBlank()) {
+            availability.put("email", !userAvailabilityService.isEmailTaken(email));
+        }
+        return availability;
+    }
+    
     @GetMapping("/logout")
     public String logout(HttpSession session, RedirectAttributes redirectAttributes) {
         session.invalidate();
@@ -1,19 +1,31 @@
 package com.blog.controller;
 
+import com.blog.dto.PostCardDto;
+import com.blog.dto.PostCardSlice;
 import com.blog.dto.PostDto;
+import com.blog.dto.PostVersion;
+import com.blog.dto.SessionUser;
+import com.blog.metrics.StatementBudget;
 import com.blog.model.Post;
 import com.blog.model.User;
 import com.blog.service.PostService;
+import com.blog.service.TagService;
+import com.blog.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -21,11 +33,25 @@ import java.util.Optional;
 @Controller
 public class BlogController {
     
+    private static final int POPULAR_TAG_LIMIT = 20;
+    
     @Autowired
     private PostService postService;
     
+    @Autowired
+    private TagService tagService;
+    
+    @Autowired
+    private UserService userService;
+    
     private User getCurrentUser(HttpSession session) {
-        return (User) session.getAttribute("user");
+        SessionUser principal = (SessionUser) session.getAttribute(SessionUser.SESSION_ATTRIBUTE);
+        return userService.findActiveUser(principal).orElse(null);
+    }
+    
+    // Templates only see the principal, never the entity and its password hash
+    private static SessionUser toPrincipal(User user) {
+        return user != null ? SessionUser.from(user) : null;
     }
     
     @GetMapping("/")
@@ -34,22 +60,39 @@ public class BlogController {
     }
     
     @GetMapping("/dashboard")
+    @StatementBudget(3)
     public String dashboard(Model model, HttpSession session,
-                            @RequestParam(defaultValue = "0") int page,
-                            @RequestParam(defaultValue = "10") int size) {
+                            @RequestParam(required = false) Integer page,
+                            @RequestParam(defaultValue = "10") int size,
+                            @RequestParam(required = false) String after,
+                            @RequestParam(required = false) String before) {
         User user = getCurrentUser(session);
         if (user == null) {
             return "redirect:/auth/login";
         }
         
-        Page<Post> postsPage = postService.getUserPosts(user, page, size);
-        List<Post> posts = postsPage.getContent() != null ? postsPage.getContent() : new ArrayList<>();
+        model.addAttribute("user", toPrincipal(user));
         
-        model.addAttribute("user", user);
-        model.addAttribute("posts", posts);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", postsPage.getTotalPages());
-        model.addAttribute("totalPosts", postsPage.getTotalElements());
+        // Numbered pages are kept for existing ?page= links; otherwise navigate by cursor
+        if (page != null) {
+            Page<PostCardDto> postsPage = postService.getUserPosts(user, page, size);
+            List<PostCardDto> posts = postsPage.getContent() != null ? postsPage.getContent() : new ArrayList<>();
+            
+            model.addAttribute("posts", posts);
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", postsPage.getTotalPages());
+            model.addAttribute("totalPosts", postsPage.getTotalElements());
+        } else {
+            PostCardSlice slice;
+            try {
+                slice = postService.getUserPosts(user, after, before, size);
+            } catch (IllegalArgumentException e) {
+                slice = postService.getUserPosts(user, null, null, size);
+            }
+            addKeysetAttributes(model, slice);
+            // From the author's cached post set version; the keyset query itself never counts
+            model.addAttribute("totalPosts", postService.countUserPosts(user));
+        }
         
         return "dashboard";
     }
@@ -62,7 +105,7 @@ public class BlogController {
         }
         
         model.addAttribute("postDto", new PostDto());
-        model.addAttribute("user", user);
+        model.addAttribute("user", toPrincipal(user));
         return "create-post";
     }
     
@@ -95,6 +138,7 @@ public class BlogController {
     }
     
     @GetMapping("/posts/{id}/edit")
+    @StatementBudget(2)
     public String showEditPostPage(@PathVariable Long id, 
                                   Model model, 
                                   HttpSession session,
@@ -119,7 +163,7 @@ public class BlogController {
         PostDto postDto = postService.convertToDto(post);
         model.addAttribute("postDto", postDto);
         model.addAttribute("post", post);
-        model.addAttribute("user", user);
+        model.addAttribute("user", toPrincipal(user));
         
         return "edit-post";
     }
@@ -181,23 +225,50 @@ public class BlogController {
     }
     
     @GetMapping("/posts/{id}")
-    public String viewPost(@PathVariable Long id, Model model, HttpSession session) {
+    @StatementBudget(3)
+    public String viewPost(@PathVariable Long id, Model model, HttpSession session,
+                           WebRequest webRequest, HttpServletResponse response) {
+        // Revalidate against the version stamp first; a 304 never loads the post or renders the page
+        Optional<PostVersion> version = postService.findVersion(id);
+        if (version.isEmpty()) {
+            return "redirect:/dashboard";
+        }
+        
+        User currentUser = getCurrentUser(session);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (webRequest.checkNotModified(postPageEtag(version.get(), currentUser), lastModified(version.get()))) {
+            return null;
+        }
+        
         Optional<Post> postOptional = postService.findById(id);
         if (postOptional.isEmpty()) {
             return "redirect:/dashboard";
         }
         
         Post post = postOptional.get();
-        User currentUser = getCurrentUser(session);
         
         model.addAttribute("post", post);
-        model.addAttribute("user", currentUser);
+        model.addAttribute("user", toPrincipal(currentUser));
         model.addAttribute("isOwner", currentUser != null && 
                           currentUser.getId().equals(post.getAuthor().getId()));
         
         return "view-post";
     }
     
+    // The page shows the post, its author and viewer-specific controls, so all three go into the tag
+    private static String postPageEtag(PostVersion version, User viewer) {
+        return "\"" + version.getPostId() + "-" + toEpochMilli(version.getUpdatedAt()) + "-"
+                + toEpochMilli(version.getAuthorUpdatedAt()) + "-" + (viewer != null ? viewer.getId() : 0) + "\"";
+    }
+    
+    private static long lastModified(PostVersion version) {
+        return Math.max(toEpochMilli(version.getUpdatedAt()), toEpochMilli(version.getAuthorUpdatedAt()));
+    }
+    
+    private static long toEpochMilli(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+    
     @PostMapping("/posts/{id}/delete")
     public String deletePost(@PathVariable Long id, 
                             HttpSession session,
@@ -220,35 +291,68 @@ public class BlogController {
     }
     
     @GetMapping("/search")
+    @StatementBudget(3)
     public String searchPosts(@RequestParam(required = false) String keyword,
-                             @RequestParam(defaultValue = "0") int page,
+                             @RequestParam(required = false) String tag,
+                             @RequestParam(required = false) Integer page,
                              @RequestParam(defaultValue = "10") int size,
+                             @RequestParam(required = false) String after,
+                             @RequestParam(required = false) String before,
                              Model model, HttpSession session) {
         
         User user = getCurrentUser(session);
-        Page<Post> postsPage;
+        boolean hasTag = tag != null && !tag.trim().isEmpty();
+        boolean hasKeyword = keyword != null && !keyword.trim().isEmpty();
         
-        if (keyword != null && !keyword.trim().isEmpty()) {
-            if (user != null) {
-                postsPage = postService.searchUserPosts(user, keyword.trim(), page, size);
-            } else {
-                postsPage = postService.searchPublishedPosts(keyword.trim(), page, size);
+        if (!hasTag && !hasKeyword && page == null) {
+            // Plain listing: keyset navigation, no COUNT query
+            PostCardSlice slice;
+            try {
+                slice = user != null ? postService.getUserPosts(user, after, before, size)
+                                     : postService.getAllPublishedPosts(after, before, size);
+            } catch (IllegalArgumentException e) {
+                slice = user != null ? postService.getUserPosts(user, null, null, size)
+                                     : postService.getAllPublishedPosts(null, null, size);
             }
+            addKeysetAttributes(model, slice);
         } else {
-            if (user != null) {
-                postsPage = postService.getUserPosts(user, page, size);
+            int pageNumber = page != null ? page : 0;
+            Page<PostCardDto> postsPage;
+            
+            if (hasTag) {
+                postsPage = postService.getPublishedPostsByTag(tag.trim(), pageNumber, size);
+            } else if (hasKeyword) {
+                if (user != null) {
+                    postsPage = postService.searchUserPosts(user, keyword.trim(), pageNumber, size);
+                } else {
+                    postsPage = postService.searchPublishedPosts(keyword.trim(), pageNumber, size);
+                }
             } else {
-                postsPage = postService.getAllPublishedPosts(page, size);
+                if (user != null) {
+                    postsPage = postService.getUserPosts(user, pageNumber, size);
+                } else {
+                    postsPage = postService.getAllPublishedPosts(pageNumber, size);
+                }
             }
+            
+            model.addAttribute("posts", postsPage.getContent());
+            model.addAttribute("currentPage", pageNumber);
+            model.addAttribute("totalPages", postsPage.getTotalPages());
+            model.addAttribute("totalPosts", postsPage.getTotalElements());
         }
         
-        model.addAttribute("posts", postsPage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", postsPage.getTotalPages());
-        model.addAttribute("totalPosts", postsPage.getTotalElements());
         model.addAttribute("keyword", keyword);
-        model.addAttribute("user", user);
+        model.addAttribute("tag", tag);
+        model.addAttribute("popularTags", tagService.getPopularTags(POPULAR_TAG_LIMIT));
+        model.addAttribute("user", toPrincipal(user));
         
         return "search";
     }
+    
+    private void addKeysetAttributes(Model model, PostCardSlice slice) {
+        model.addAttribute("posts", slice.getContent());
+        model.addAttribute("keyset", true);
+        model.addAttribute("nextCursor", slice.getNextCursor());
+        model.addAttribute("previousCursor", slice.getPreviousCursor());
+    }
 }
\ No newline at end of file
@@ -1,70 +1,120 @@
 package com.blog.controller;
+import com.blog.dto.ExportJobStatus;
+import com.blog.dto.SessionUser;
+import com.blog.metrics.StatementBudget;
 import com.blog.model.User;
+import com.blog.service.ExportCache;
+import com.blog.service.ExportFormat;
+import com.blog.service.ExportJob;
+import com.blog.service.ExportJobService;
 import com.blog.service.ExportService;
+import com.blog.service.ServiceBusyException;
+import com.blog.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Controller
 @RequestMapping("/export")
 public class ExportController {
 
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
     @Autowired
     private ExportService exportService;
 
+    @Autowired
+    private ExportCache exportCache;
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private UserService userService;
+
+    private User getCurrentUser(HttpSession session) {
+        SessionUser principal = (SessionUser) session.getAttribute(SessionUser.SESSION_ATTRIBUTE);
+        return userService.findActiveUser(principal).orElse(null);
+    }
+
     @GetMapping("/posts/excel")
+    @StatementBudget(3)
     public void exportPostsToExcel(HttpSession session, 
+                                  HttpServletRequest request,
                                   HttpServletResponse response,
                                   RedirectAttributes redirectAttributes) {
-        User user = (User) session.getAttribute("user");
+        User user = getCurrentUser(session);
         if (user == null) {
             return;
         }
 
         try {
-            byte[] excelData = exportService.exportPostsToExcel(user);
-
-            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-            response.setHeader("Content-Disposition", 
-                             "attachment; filename=" + user.getUsername() + "_posts.xlsx");
-            response.setContentLength(excelData.length);
-
-            response.getOutputStream().write(excelData);
-            response.getOutputStream().flush();
+            String key = exportService.userPostsExportKey(user, ExportFormat.EXCEL);
+            if (notModified(key, request, response)) {
+                return;
+            }
+            sendExport(key, out -> exportService.exportPostsToExcel(user, out), ExportFormat.EXCEL,
+                    user.getUsername() + "_posts.xlsx", request, response);
 
         } catch (IOException e) {
+            abortIfCommitted(e, response);
             redirectAttributes.addFlashAttribute("error", "Failed to export posts to Excel");
         }
     }
 
     // NEW: Export all posts to CSV
     @GetMapping("/posts/csv")
+    @StatementBudget(3)
     public void exportPostsToCSV(HttpSession session, 
+                                 HttpServletRequest request,
                                  HttpServletResponse response,
                                  RedirectAttributes redirectAttributes) {
-        User user = (User) session.getAttribute("user");
+        User user = getCurrentUser(session);
         if (user == null) {
             return;
         }
 
         try {
-            String csvData = exportService.exportPostsToCSV(user);
-
-            response.setContentType("text/csv");
-            response.setHeader("Content-Disposition", 
-                             "attachment; filename=" + user.getUsername() + "_posts.csv");
-            response.setContentLength(csvData.getBytes().length);
-
-            response.getWriter().write(csvData);
-            response.getWriter().flush();
+            String key = exportService.userPostsExportKey(user, ExportFormat.CSV);
+            if (notModified(key, request, response)) {
+                return;
+            }
+            response.setCharacterEncoding("UTF-8");
+            sendExport(key, out -> exportService.exportPostsToCSV(user, out), ExportFormat.CSV,
+                    user.getUsername() + "_posts.csv", request, response);
 
         } catch (IOException e) {
+            abortIfCommitted(e, response);
             redirectAttributes.addFlashAttribute("error", "Failed to export posts to CSV");
         }
     }
@@ -72,50 +122,49 @@ public class ExportController {
     @GetMapping("/posts/{id}/word")
     public void exportPostToWord(@PathVariable Long id,
                                 HttpSession session,
+                                HttpServletRequest request,
                                 HttpServletResponse response,
                                 RedirectAttributes redirectAttributes) {
-        User user = (User) session.getAttribute("user");
+        User user = getCurrentUser(session);
         if (user == null) {
             return;
         }
 
         try {
-            byte[] wordData = exportService.exportPostToWord(id);
-
-            response.setContentType("application/vnd.openxmlformats-officedocument.wordprocessingml.document");
-            response.setHeader("Content-Disposition", 
-                             "attachment; filename=post_" + id + ".docx");
-            response.setContentLength(wordData.length);
-
-            response.getOutputStream().write(wordData);
-            response.getOutputStream().flush();
+            String key = exportService.postExportKey(id, ExportFormat.WORD);
+            if (notModified(key, request, response)) {
+                return;
+            }
+            sendExport(key, out -> out.write(exportService.exportPostToWord(id)), ExportFormat.WORD,
+                    "post_" + id + ".docx", request, response);
 
         } catch (Exception e) {
+            abortIfCommitted(e, response);
             redirectAttributes.addFlashAttribute("error", "Failed to export post to Word");
         }
     }
 
     @GetMapping("/posts/pdf")
+    @StatementBudget(3)
     public void exportPostsToPdf(HttpSession session, 
+                                 HttpServletRequest request,
                                  HttpServletResponse response,
                                  RedirectAttributes redirectAttributes) {
-        User user = (User) session.getAttribute("user");
+        User user = getCurrentUser(session);
         if (user == null) {
             return;
         }
 
         try {
-            byte[] pdfData = exportService.exportPostsToPdf(user);
-
-            response.setContentType("application/pdf");
-            response.setHeader("Content-Disposition", 
-                             "attachment; filename=" + user.getUsername() + "_posts.pdf");
-            response.setContentLength(pdfData.length);
-
-            response.getOutputStream().write(pdfData);
-            response.getOutputStream().flush();
+            String key = exportService.userPostsExportKey(user, ExportFormat.PDF);
+            if (notModified(key, request, response)) {
+                return;
+            }
+            sendExport(key, out -> exportService.exportPostsToPdf(user, out), ExportFormat.PDF,
+                    user.getUsername() + "_posts.pdf", request, response);
 
         } catch (IOException e) {
+            abortIfCommitted(e, response);
             redirectAttributes.addFlashAttribute("error", "Failed to export posts to PDF");
         }
     }
@@ -123,26 +172,235 @@ public class ExportController {
     @GetMapping("/posts/{id}/pdf")
     public void exportPostToPdf(@PathVariable Long id,
                                 HttpSession session,
+                                HttpServletRequest request,
                                 HttpServletResponse response,
                                 RedirectAttributes redirectAttributes) {
-        User user = (User) session.getAttribute("user");
+        User user = getCurrentUser(session);
         if (user == null) {
             return;
         }
 
         try {
-            byte[] pdfData = exportService.exportPostToPdf(id);
-
-            response.setContentType("application/pdf");
-            response.setHeader("Content-Disposition", 
-                             "attachment; filename=post_" + id + ".pdf");
-            response.setContentLength(pdfData.length);
-
-            response.getOutputStream().write(pdfData);
-            response.getOutputStream().flush();
+            String key = exportService.postExportKey(id, ExportFormat.PDF);
+            if (notModified(key, request, response)) {
+                return;
+            }
+            sendExport(key, out -> out.write(exportService.exportPostToPdf(id)), ExportFormat.PDF,
+                    "post_" + id + ".pdf", request, response);
 
         } catch (IOException e) {
+            abortIfCommitted(e, response);
             redirectAttributes.addFlashAttribute("error", "Failed to export post to PDF");
         }
     }
+
+    // Streams an archive of per-post Word and/or PDF files straight to the response; the
+    // documents are rendered in parallel and nothing is spooled to disk
+    @GetMapping("/posts/zip")
+    @StatementBudget(3)
+    public void exportPostsToZip(@RequestParam(defaultValue = "docx,pdf") List<String> formats,
+                                 HttpSession session,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        User user = getCurrentUser(session);
+        if (user == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        Set<ExportFormat> documentFormats = EnumSet.noneOf(ExportFormat.class);
+        try {
+            for (String format : formats) {
+                documentFormats.add(ExportFormat.fromName(format.trim()));
+            }
+            String key = exportService.userPostsExportKey(user, ExportFormat.ZIP) + ":" + documentFormats;
+            if (notModified(key, request, response)) {
+                return;
+            }
+            response.setContentType(ExportFormat.ZIP.getContentType());
+            response.setHeader("Content-Disposition", "attachment; filename=" + user.getUsername() + "_posts.zip");
+            exportService.exportPostsToZip(user, documentFormats, response.getOutputStream());
+        } catch (IllegalArgumentException e) {
+            // Formats are checked before anything is written
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        response.flushBuffer();
+    }
+
+    @GetMapping("/cache/stats")
+    @ResponseBody
+    public Map<String, Long> getExportCacheStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", exportCache.getHits());
+        stats.put("misses", exportCache.getMisses());
+        stats.put("evictions", exportCache.getEvictions());
+        stats.put("entries", (long) exportCache.getEntryCount());
+        stats.put("sizeBytes", exportCache.getSizeBytes());
+        return stats;
+    }
+
+    // Asynchronous exports: submit a job, poll its status, then download the spooled file
+    @PostMapping("/jobs")
+    @ResponseBody
+    public ResponseEntity<ExportJobStatus> submitExportJob(@RequestParam String format,
+                                                           @RequestParam(required = false) Long postId,
+                                                           HttpSession session) {
+        User user = getCurrentUser(session);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            ExportJob job = exportJobService.submit(user, ExportFormat.fromName(format), postId);
+            ExportJobStatus status = exportJobService.convertToDto(job);
+            return ResponseEntity.accepted()
+                    .location(URI.create(status.getStatusUrl()))
+                    .body(status);
+        } catch (IllegalArgumentException e) {
+            ExportJobStatus status = new ExportJobStatus();
+            status.setError(e.getMessage());
+            return ResponseEntity.badRequest().body(status);
+        } catch (ServiceBusyException e) {
+            ExportJobStatus status = new ExportJobStatus();
+            status.setError(e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "10")
+                    .body(status);
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<ExportJobStatus> getExportJobStatus(@PathVariable String jobId, HttpSession session) {
+        User user = getCurrentUser(session);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return exportJobService.findJob(jobId, user)
+                .map(job -> ResponseEntity.ok(exportJobService.convertToDto(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs/{jobId}/download")
+    public void downloadExportJob(@PathVariable String jobId,
+                                  HttpSession session,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        User user = getCurrentUser(session);
+        if (user == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        Optional<ExportJob> jobOptional = exportJobService.findJob(jobId, user);
+        if (jobOptional.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        ExportJob job = jobOptional.get();
+        if (job.getStatus() != ExportJob.Status.COMPLETED) {
+            response.sendError(HttpServletResponse.SC_CONFLICT, "Export is not ready");
+            return;
+        }
+
+        sendFile(job.getFile(), job.getFormat(), job.getFileName(), request, response);
+    }
+
+    // The cache key already embeds the version of every post in the export, so its digest is a
+    // strong validator; a matching If-None-Match gets a 304 before anything is rendered
+    private boolean notModified(String key, HttpServletRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return new ServletWebRequest(request, response).checkNotModified("\"" + ExportCache.digest(key) + "\"");
+    }
+
+    // Hands the file to Tomcat's sendfile when the connector supports it, otherwise
+    // falls back to a channel transfer
+    private void sendFile(Path file, ExportFormat format, String fileName,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        if (sendfileSupported(request)) {
+            sendfile(file, format, fileName, request, response);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(channel, format, fileName, response);
+        }
+    }
+
+    // A hit is sent from the cache file. A miss is streamed to the client while it is written
+    // to the cache, so the first byte does not wait for the whole export.
+    private void sendExport(String key, ExportCache.ArtifactWriter writer, ExportFormat format, String fileName,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        try (ExportCache.Entry entry = exportCache.getOrCreate(key, writer, () -> {
+            response.setContentType(format.getContentType());
+            response.setHeader("Content-Disposition", "attachment; filename=" + fileName);
+            return response.getOutputStream();
+        })) {
+            if (!entry.isStreamed()) {
+                sendCachedFile(entry, format, fileName, request, response);
+            }
+        }
+    }
+
+    // Once part of a download has gone out an error page cannot follow; failing the request
+    // makes Tomcat drop the connection, so the client sees a broken transfer, not a short file
+    private void abortIfCommitted(Exception e, HttpServletResponse response) {
+        if (response.isCommitted()) {
+            throw new IllegalStateException("Export failed after the response was committed", e);
+        }
+    }
+
+    // Tomcat's sendfile reads the file after the handler returns and the entry is released,
+    // so it gets a hard link that survives eviction. Without sendfile or hard links the file
+    // is copied while the entry is still pinned.
+    private void sendCachedFile(ExportCache.Entry entry, ExportFormat format, String fileName,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        if (sendfileSupported(request)) {
+            Optional<Path> link = exportCache.servingLink(entry);
+            if (link.isPresent()) {
+                sendfile(link.get(), format, fileName, request, response);
+                return;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(entry.getPath(), StandardOpenOption.READ)) {
+            transfer(channel, format, fileName, response);
+        }
+    }
+
+    private boolean sendfileSupported(HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE));
+    }
+
+    private void sendfile(Path file, ExportFormat format, String fileName,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        long size = Files.size(file);
+        setDownloadHeaders(format, fileName, size, response);
+        request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START_ATTRIBUTE, 0L);
+        request.setAttribute(SENDFILE_END_ATTRIBUTE, size);
+    }
+
+    private void transfer(FileChannel channel, ExportFormat format, String fileName,
+                          HttpServletResponse response) throws IOException {
+        long size = channel.size();
+        setDownloadHeaders(format, fileName, size, response);
+        WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+        long position = 0;
+        while (position < size) {
+            position += channel.transferTo(position, size - position, target);
+        }
+        response.getOutputStream().flush();
+    }
+
+    private void setDownloadHeaders(ExportFormat format, String fileName, long size, HttpServletResponse response) {
+        response.setContentType(format.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=" + fileName);
+        response.setContentLengthLong(size);
+    }
 }
\ No newline at end of file
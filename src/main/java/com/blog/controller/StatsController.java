@@ -0,0 +1,64 @@
+package com.blog.controller;
+
+import com.blog.cache.BoundedCache;
+import com.blog.service.PasswordHashingService;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+public class StatsController {
+    
+    @Autowired
+    private List<BoundedCache<?, ?>> caches;
+    
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+    
+    // Prometheus text exposition of every meter in the application
+    @GetMapping(value = "/metrics", produces = "text/plain; version=0.0.4; charset=utf-8")
+    public String scrapeMetrics() {
+        return prometheusMeterRegistry.scrape();
+    }
+    
+    @GetMapping("/stats/caches")
+    public Map<String, Map<String, Object>> getCacheStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (BoundedCache<?, ?> cache : caches) {
+            Map<String, Object> cacheStats = new LinkedHashMap<>();
+            cacheStats.put("size", cache.size());
+            cacheStats.put("maxSize", cache.getMaxSize());
+            cacheStats.put("hits", cache.getHits());
+            cacheStats.put("misses", cache.getMisses());
+            cacheStats.put("hitRatio", cache.getHitRatio());
+            cacheStats.put("evictions", cache.getEvictions());
+            cacheStats.put("loads", cache.getLoads());
+            cacheStats.put("averageLoadMillis", cache.getAverageLoadMillis());
+            stats.put(cache.getName(), cacheStats);
+        }
+        return stats;
+    }
+    
+    @GetMapping("/stats/password-hashing")
+    public Map<String, Object> getPasswordHashingStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", passwordHashingService.getPoolSize());
+        stats.put("active", passwordHashingService.getActiveCount());
+        stats.put("queueDepth", passwordHashingService.getQueueDepth());
+        stats.put("queueCapacity", passwordHashingService.getQueueCapacity());
+        stats.put("hashes", passwordHashingService.getHashCount());
+        stats.put("rejections", passwordHashingService.getRejectionCount());
+        stats.put("averageHashMillis", passwordHashingService.getAverageHashMillis());
+        stats.put("maxHashMillis", passwordHashingService.getMaxHashMillis());
+        stats.put("averageWaitMillis", passwordHashingService.getAverageWaitMillis());
+        return stats;
+    }
+}
@@ -0,0 +1,45 @@
+package com.blog.dto;
+
+public class ExportJobStatus {
+    
+    private String id;
+    private String format;
+    private String status;
+    private long totalPosts;
+    private int processedPosts;
+    private Long fileSize;
+    private String error;
+    private String statusUrl;
+    private String downloadUrl;
+    
+    // Constructors
+    public ExportJobStatus() {}
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public long getTotalPosts() { return totalPosts; }
+    public void setTotalPosts(long totalPosts) { this.totalPosts = totalPosts; }
+    
+    public int getProcessedPosts() { return processedPosts; }
+    public void setProcessedPosts(int processedPosts) { this.processedPosts = processedPosts; }
+    
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    
+    public String getStatusUrl() { return statusUrl; }
+    public void setStatusUrl(String statusUrl) { this.statusUrl = statusUrl; }
+    
+    public String getDownloadUrl() { return downloadUrl; }
+    public void setDownloadUrl(String downloadUrl) { this.downloadUrl = downloadUrl; }
+}
@@ -0,0 +1,77 @@
+package com.blog.dto;
+
+import java.time.LocalDateTime;
+
+// List-card view of a post for dashboard and search pages; never carries the post content
+public class PostCardDto {
+    
+    private final Long id;
+    private final String title;
+    private final String summary;
+    private final String excerpt;
+    private final Integer charCount;
+    private final String tags;
+    private final Boolean isPublished;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final Long authorId;
+    private final String authorFirstName;
+    private final String authorLastName;
+    
+    public PostCardDto(Long id, String title, String summary, String excerpt, Integer charCount, String tags,
+                       Boolean isPublished, LocalDateTime createdAt, LocalDateTime updatedAt,
+                       Long authorId, String authorFirstName, String authorLastName) {
+        this.id = id;
+        this.title = title;
+        this.summary = summary;
+        this.excerpt = excerpt;
+        this.charCount = charCount;
+        this.tags = tags;
+        this.isPublished = isPublished;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.authorId = authorId;
+        this.authorFirstName = authorFirstName;
+        this.authorLastName = authorLastName;
+    }
+    
+    // Business methods
+    public String getShortContent(int length) {
+        if (excerpt == null) return "";
+        int fullLength = charCount != null ? charCount : excerpt.length();
+        return fullLength > length ? 
+               excerpt.substring(0, Math.min(length, excerpt.length())) + "..." : excerpt;
+    }
+    
+    public String[] getTagArray() {
+        if (tags == null || tags.trim().isEmpty()) {
+            return new String[0];
+        }
+        return tags.split(",");
+    }
+    
+    public String getAuthorName() {
+        return authorFirstName + " " + authorLastName;
+    }
+    
+    public String getAuthorInitials() {
+        return initial(authorFirstName) + initial(authorLastName);
+    }
+    
+    private static String initial(String name) {
+        return name == null || name.isEmpty() ? "" : name.substring(0, 1);
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public String getSummary() { return summary; }
+    public String getExcerpt() { return excerpt; }
+    public String getTags() { return tags; }
+    public Boolean getIsPublished() { return isPublished; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public Long getAuthorId() { return authorId; }
+    public String getAuthorFirstName() { return authorFirstName; }
+    public String getAuthorLastName() { return authorLastName; }
+}
@@ -0,0 +1,24 @@
+package com.blog.dto;
+
+import java.util.List;
+
+// One keyset page of post cards with the cursors needed to move either way
+public class PostCardSlice {
+    
+    private final List<PostCardDto> content;
+    private final String nextCursor;
+    private final String previousCursor;
+    
+    public PostCardSlice(List<PostCardDto> content, String nextCursor, String previousCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+    
+    // Getters
+    public List<PostCardDto> getContent() { return content; }
+    public String getNextCursor() { return nextCursor; }
+    public String getPreviousCursor() { return previousCursor; }
+    public boolean hasNext() { return nextCursor != null; }
+    public boolean hasPrevious() { return previousCursor != null; }
+}
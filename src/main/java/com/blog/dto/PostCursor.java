@@ -0,0 +1,43 @@
+package com.blog.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset position in a (createdAt DESC, id DESC) post listing
+public class PostCursor {
+    
+    // Sorts before every real post, i.e. the start of the listing
+    public static final PostCursor START = new PostCursor(LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE);
+    
+    private final LocalDateTime createdAt;
+    private final Long id;
+    
+    public PostCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+    
+    public static PostCursor of(PostCardDto post) {
+        return new PostCursor(post.getCreatedAt(), post.getId());
+    }
+    
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static PostCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new PostCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+    
+    // Getters
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Long getId() { return id; }
+}
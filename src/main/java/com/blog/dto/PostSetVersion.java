@@ -0,0 +1,19 @@
+package com.blog.dto;
+
+import java.time.LocalDateTime;
+
+// Version stamp of all of an author's posts: any create, edit or delete changes one of the two values
+public class PostSetVersion {
+    
+    private final long count;
+    private final LocalDateTime maxUpdatedAt;
+    
+    public PostSetVersion(Long count, LocalDateTime maxUpdatedAt) {
+        this.count = count != null ? count : 0L;
+        this.maxUpdatedAt = maxUpdatedAt;
+    }
+    
+    // Getters
+    public long getCount() { return count; }
+    public LocalDateTime getMaxUpdatedAt() { return maxUpdatedAt; }
+}
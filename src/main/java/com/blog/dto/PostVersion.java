@@ -0,0 +1,22 @@
+package com.blog.dto;
+
+import java.time.LocalDateTime;
+
+// Version stamp of a single post, read without loading its content
+public class PostVersion {
+    
+    private final Long postId;
+    private final LocalDateTime updatedAt;
+    private final LocalDateTime authorUpdatedAt;
+    
+    public PostVersion(Long postId, LocalDateTime updatedAt, LocalDateTime authorUpdatedAt) {
+        this.postId = postId;
+        this.updatedAt = updatedAt;
+        this.authorUpdatedAt = authorUpdatedAt;
+    }
+    
+    // Getters
+    public Long getPostId() { return postId; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public LocalDateTime getAuthorUpdatedAt() { return authorUpdatedAt; }
+}
@@ -0,0 +1,43 @@
+package com.blog.dto;
+
+import com.blog.model.User;
+
+import java.io.Serializable;
+
+// What the HTTP session keeps for a signed-in user: identity and display name only, never the entity
+public final class SessionUser implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public static final String SESSION_ATTRIBUTE = "user";
+    
+    private final Long id;
+    private final String username;
+    private final String firstName;
+    private final String lastName;
+    private final boolean active;
+    
+    public SessionUser(Long id, String username, String firstName, String lastName, boolean active) {
+        this.id = id;
+        this.username = username;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.active = active;
+    }
+    
+    public static SessionUser from(User user) {
+        return new SessionUser(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(),
+                Boolean.TRUE.equals(user.getIsActive()));
+    }
+    
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    public String getUsername() { return username; }
+    public String getFirstName() { return firstName; }
+    public String getLastName() { return lastName; }
+    public boolean isActive() { return active; }
+}
@@ -0,0 +1,39 @@
+package com.blog.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.function.IntSupplier;
+
+/**
+ * Answers 404 for the operational endpoints unless the request came in on the internal port,
+ * so they cannot be told apart from missing pages on the public one. The port supplier gives
+ * -1 when there is no internal connector.
+ */
+public class InternalEndpointFilter extends OncePerRequestFilter {
+    
+    private final IntSupplier internalPort;
+    
+    public InternalEndpointFilter(IntSupplier internalPort) {
+        this.internalPort = internalPort;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // The servlet path is decoded and normalized, unlike the raw request URI
+        if (isInternal(request.getServletPath()) && request.getLocalPort() != internalPort.getAsInt()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+    
+    private static boolean isInternal(String path) {
+        return path.equals("/metrics") || path.startsWith("/stats/") || path.equals("/export/cache/stats");
+    }
+}
@@ -0,0 +1,34 @@
+package com.blog.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Hibernate session listener that adds each JDBC statement's execution time to the current
+ * {@link RequestTiming}. It sees every statement the session runs, including lazy loads
+ * triggered from templates, not just repository calls. One instance per session.
+ */
+public class JdbcTimingListener implements SessionEventListener {
+    
+    private long statementStart;
+    private long batchStart;
+    
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTiming.recordStatement(System.nanoTime() - statementStart);
+    }
+    
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTiming.recordStatement(System.nanoTime() - batchStart);
+    }
+}
@@ -0,0 +1,86 @@
+package com.blog.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public PostService and UserService method and every repository query.
+ * Meters are resolved once per method and cached, so a call costs two clock reads and
+ * a timer update.
+ */
+@Aspect
+@Component
+public class MetricsAspect {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final Map<Method, MethodMeters> serviceMeters = new ConcurrentHashMap<>();
+    // Keyed by the repository proxy class too, since inherited methods like save are shared
+    private final Map<QueryKey, MethodMeters> queryMeters = new ConcurrentHashMap<>();
+    
+    @Around("execution(public * com.blog.service.PostService.*(..)) || execution(public * com.blog.service.UserService.*(..))")
+    public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodMeters meters = serviceMeters.computeIfAbsent(method, m -> new MethodMeters(meterRegistry,
+                "blog.service.calls", "class", m.getDeclaringClass().getSimpleName(), "method", m.getName()));
+        return meters.time(joinPoint);
+    }
+    
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = joinPoint.getTarget().getClass();
+        MethodMeters meters = queryMeters.computeIfAbsent(new QueryKey(targetClass, method), key -> new MethodMeters(meterRegistry,
+                "blog.repository.queries", "repository", repositoryName(targetClass), "query", method.getName()));
+        return meters.time(joinPoint);
+    }
+    
+    // The application's own repository interface, rather than the proxy or a Spring Data base type
+    private static String repositoryName(Class<?> targetClass) {
+        for (Class<?> candidate : targetClass.getInterfaces()) {
+            if (Repository.class.isAssignableFrom(candidate) && candidate.getName().startsWith("com.blog.")) {
+                return candidate.getSimpleName();
+            }
+        }
+        return targetClass.getSimpleName();
+    }
+    
+    private record QueryKey(Class<?> targetClass, Method method) {
+    }
+    
+    private static final class MethodMeters {
+        final Timer timer;
+        final Counter errors;
+        
+        MethodMeters(MeterRegistry registry, String name, String... tags) {
+            this.timer = Timer.builder(name).tags(tags).register(registry);
+            this.errors = Counter.builder(name + ".errors").tags(tags).register(registry);
+        }
+        
+        Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+            long start = System.nanoTime();
+            try {
+                return joinPoint.proceed();
+            } catch (Throwable e) {
+                errors.increment();
+                throw e;
+            } finally {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
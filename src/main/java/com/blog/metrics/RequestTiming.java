@@ -0,0 +1,123 @@
+package com.blog.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+
+/**
+ * Time spent on the current request, split into controller handling, JDBC statements,
+ * view rendering and export generation. Held in a thread local by {@link RequestTimingFilter};
+ * the static recorders do nothing on threads that are not serving a request.
+ */
+public final class RequestTiming {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RequestTiming.class);
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    
+    private final long startNanos = System.nanoTime();
+    private long handlerNanos;
+    private long renderNanos;
+    private long databaseNanos;
+    private long exportNanos;
+    private int statements;
+    private String view;
+    // Set from the handler's @StatementBudget; -1 when it has none
+    private int statementBudget = -1;
+    private String budgetOwner;
+    
+    private RequestTiming() {
+    }
+    
+    static RequestTiming begin() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+    
+    static void end() {
+        CURRENT.remove();
+    }
+    
+    static RequestTiming current() {
+        return CURRENT.get();
+    }
+    
+    public static void recordStatement(long nanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.statements++;
+            timing.databaseNanos += nanos;
+            if (timing.statements == timing.statementBudget + 1) {
+                timing.budgetExceeded();
+            }
+        }
+    }
+    
+    // Reported once, at the first statement over budget, so the stack trace points at its source.
+    // Only logged: this runs inside Hibernate's session listener, where throwing would break the session.
+    private void budgetExceeded() {
+        logger.warn("{} exceeded its budget of {} SQL statements", budgetOwner, statementBudget,
+                new Throwable("Statement " + statements + " issued here"));
+    }
+    
+    public static void recordExport(long nanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.exportNanos += nanos;
+        }
+    }
+    
+    void setStatementBudget(int budget, String owner) {
+        statementBudget = budget;
+        budgetOwner = owner;
+    }
+    
+    void recordHandler(long nanos) {
+        handlerNanos += nanos;
+    }
+    
+    void recordRender(String viewName, long nanos) {
+        view = viewName;
+        renderNanos += nanos;
+    }
+    
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+    
+    // Handler time includes the statements it ran; render time includes lazy loads from the template
+    String toServerTiming() {
+        StringBuilder header = new StringBuilder();
+        appendMetric(header, "handler", handlerNanos, null);
+        appendMetric(header, "db", databaseNanos, statements + (statements == 1 ? " statement" : " statements"));
+        if (view != null) {
+            appendMetric(header, "render", renderNanos, view);
+        }
+        if (exportNanos > 0) {
+            appendMetric(header, "export", exportNanos, null);
+        }
+        appendMetric(header, "total", elapsedNanos(), null);
+        return header.toString();
+    }
+    
+    String toLogString() {
+        return String.format(Locale.ROOT, "total=%.1fms handler=%.1fms db=%.1fms (%d statements) render=%.1fms%s export=%.1fms",
+                millis(elapsedNanos()), millis(handlerNanos), millis(databaseNanos), statements,
+                millis(renderNanos), view != null ? " [" + view + "]" : "", millis(exportNanos));
+    }
+    
+    private static void appendMetric(StringBuilder header, String name, long nanos, String description) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.1f", millis(nanos)));
+        if (description != null) {
+            header.append(";desc=\"").append(description.replace("\"", "")).append('"');
+        }
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
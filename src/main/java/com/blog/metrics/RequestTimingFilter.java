@@ -0,0 +1,215 @@
+package com.blog.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Collects a {@link RequestTiming} for each request and reports it in a Server-Timing header.
+ * HTML written through the response writer, i.e. rendered templates, is held in memory until
+ * the request ends, so the header can carry the final render and total times; template engines
+ * flush as they go and would otherwise commit the response first. Only pages up to the held
+ * page limit are held: a larger page is streamed from the point it crosses the limit, and like
+ * streamed bodies (exports, JSON) its header carries what was known when the body started.
+ * Requests slower than the threshold are logged with the full breakdown, sampled at the
+ * configured rate.
+ */
+public class RequestTimingFilter extends OncePerRequestFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RequestTimingFilter.class);
+    private static final String SERVER_TIMING = "Server-Timing";
+    
+    private final long slowRequestNanos;
+    private final double slowLogSampleRate;
+    private final int maxHeldPageChars;
+    
+    public RequestTimingFilter(long slowRequestMillis, double slowLogSampleRate, int maxHeldPageChars) {
+        this.slowRequestNanos = slowRequestMillis * 1_000_000L;
+        this.slowLogSampleRate = slowLogSampleRate;
+        this.maxHeldPageChars = maxHeldPageChars;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.begin();
+        TimingResponseWrapper wrappedResponse = new TimingResponseWrapper(response, timing, maxHeldPageChars);
+        boolean completed = false;
+        try {
+            chain.doFilter(request, wrappedResponse);
+            completed = true;
+        } finally {
+            RequestTiming.end();
+            if (!response.isCommitted()) {
+                response.setHeader(SERVER_TIMING, timing.toServerTiming());
+            }
+            if (timing.elapsedNanos() >= slowRequestNanos
+                    && ThreadLocalRandom.current().nextDouble() < slowLogSampleRate) {
+                logger.warn("Slow request {} {} ({}): {}", request.getMethod(), request.getRequestURI(),
+                        response.getStatus(), timing.toLogString());
+            }
+        }
+        // A failed request's partial page is dropped, as the container would on an error
+        if (completed) {
+            wrappedResponse.writeHeldPage();
+        }
+    }
+    
+    // Holds HTML written to the writer, and puts a provisional header on anything else
+    // before it can commit the response
+    private static final class TimingResponseWrapper extends HttpServletResponseWrapper {
+        
+        private final RequestTiming timing;
+        private final int maxHeldPageChars;
+        private HeldPage page;
+        private PrintWriter pageWriter;
+        
+        TimingResponseWrapper(HttpServletResponse response, RequestTiming timing, int maxHeldPageChars) {
+            super(response);
+            this.timing = timing;
+            this.maxHeldPageChars = maxHeldPageChars;
+        }
+        
+        void writeHeldPage() throws IOException {
+            if (pageWriter != null) {
+                pageWriter.flush();
+                page.release();
+            }
+        }
+        
+        private void writeHeader() {
+            if (!isCommitted()) {
+                setHeader(SERVER_TIMING, timing.toServerTiming());
+            }
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (pageWriter == null && getContentType() != null && getContentType().startsWith("text/html")) {
+                page = new HeldPage();
+                pageWriter = new PrintWriter(page);
+            }
+            if (pageWriter != null) {
+                return pageWriter;
+            }
+            writeHeader();
+            return super.getWriter();
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            if (pageWriter != null) {
+                pageWriter.flush();
+                if (!page.isStreaming()) {
+                    return;
+                }
+            }
+            writeHeader();
+            super.flushBuffer();
+        }
+        
+        @Override
+        public void resetBuffer() {
+            if (page != null) {
+                page.discard();
+            }
+            super.resetBuffer();
+        }
+        
+        @Override
+        public void reset() {
+            if (page != null) {
+                page.discard();
+            }
+            super.reset();
+        }
+        
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+        
+        // The page in memory until it passes the limit, then the response's own writer
+        private final class HeldPage extends Writer {
+            
+            private CharArrayWriter held = new CharArrayWriter(8192);
+            private PrintWriter target;
+            
+            boolean isStreaming() {
+                return target != null;
+            }
+            
+            @Override
+            public void write(char[] chars, int offset, int length) throws IOException {
+                if (target != null) {
+                    target.write(chars, offset, length);
+                    return;
+                }
+                held.write(chars, offset, length);
+                if (held.size() > maxHeldPageChars) {
+                    release();
+                }
+            }
+            
+            @Override
+            public void write(String text, int offset, int length) throws IOException {
+                if (target != null) {
+                    target.write(text, offset, length);
+                    return;
+                }
+                held.write(text, offset, length);
+                if (held.size() > maxHeldPageChars) {
+                    release();
+                }
+            }
+            
+            // Writes out what is held and passes everything after it straight through
+            void release() throws IOException {
+                if (target == null) {
+                    writeHeader();
+                    target = TimingResponseWrapper.super.getWriter();
+                    held.writeTo(target);
+                    held = null;
+                }
+                target.flush();
+            }
+            
+            void discard() {
+                if (held != null) {
+                    held.reset();
+                }
+            }
+            
+            @Override
+            public void flush() {
+                if (target != null) {
+                    target.flush();
+                }
+            }
+            
+            @Override
+            public void close() {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.blog.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Splits a request's time into controller handling and view rendering for {@link RequestTiming},
+ * and arms the handler's {@link StatementBudget} if it declares one.
+ */
+public class RequestTimingInterceptor implements HandlerInterceptor {
+    
+    private static final String HANDLER_START = RequestTimingInterceptor.class.getName() + ".handlerStart";
+    private static final String RENDER_START = RequestTimingInterceptor.class.getName() + ".renderStart";
+    private static final String VIEW_NAME = RequestTimingInterceptor.class.getName() + ".viewName";
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(HANDLER_START, System.nanoTime());
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null && handler instanceof HandlerMethod handlerMethod) {
+            StatementBudget budget = handlerMethod.getMethodAnnotation(StatementBudget.class);
+            if (budget != null) {
+                String owner = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+                timing.setStatementBudget(budget.value(), owner);
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        RequestTiming timing = RequestTiming.current();
+        Object handlerStart = request.getAttribute(HANDLER_START);
+        if (timing == null || handlerStart == null) return;
+        
+        long now = System.nanoTime();
+        timing.recordHandler(now - (Long) handlerStart);
+        // Redirects and @ResponseBody handlers have no view to render
+        if (modelAndView != null && modelAndView.getViewName() != null && !modelAndView.getViewName().startsWith("redirect:")) {
+            request.setAttribute(RENDER_START, now);
+            request.setAttribute(VIEW_NAME, modelAndView.getViewName());
+        }
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestTiming timing = RequestTiming.current();
+        Object renderStart = request.getAttribute(RENDER_START);
+        if (timing == null) return;
+        
+        if (renderStart != null) {
+            timing.recordRender((String) request.getAttribute(VIEW_NAME), System.nanoTime() - (Long) renderStart);
+        } else if (request.getAttribute(HANDLER_START) != null && ex != null) {
+            // postHandle is skipped when the handler throws
+            timing.recordHandler(System.nanoTime() - (Long) request.getAttribute(HANDLER_START));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.blog.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements a handler may cause, counting view rendering and lazy loads from the
+ * template. Going over is logged with the stack of the first statement past the budget, so an
+ * N+1 shows up as soon as it is introduced; StatementCountTest pins the exact counts.
+ * Budgets assume cold caches; warm requests use fewer.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+    
+    int value();
+}
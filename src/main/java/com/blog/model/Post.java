@@ -1,13 +1,28 @@
 package com.blog.model;
 
+import com.blog.util.HtmlText;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.Hibernate;
+
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    // Back the (createdAt, id) keyset listings
+    @Index(name = "idx_posts_author_created", columnList = "author_id, created_at, id"),
+    @Index(name = "idx_posts_published_created", columnList = "is_published, created_at, id")
+})
 public class Post extends AbstractEntity {
     
+    public static final int EXCERPT_LENGTH = 300;
+    // Bump when HtmlText changes the derived statistics; rows stored with an older
+    // version are recomputed at startup by PostBackfillService
+    public static final int CONTENT_STATS_VERSION = 2;
+    private static final int WORDS_PER_MINUTE = 200;
+    
     @NotBlank(message = "Title is required")
     @Size(max = 255, message = "Title cannot exceed 255 characters")
     @Column(nullable = false)
@@ -27,10 +42,31 @@ public class Post extends AbstractEntity {
     @Column(name = "is_published")
     private Boolean isPublished = false;
     
+    // Plain-text statistics derived from content, refreshed whenever content is written
+    @Column(name = "word_count")
+    private Integer wordCount;
+    
+    @Column(name = "char_count")
+    private Integer charCount;
+    
+    @Column(length = EXCERPT_LENGTH)
+    private String excerpt;
+    
+    @Column(name = "content_stats_version")
+    private Integer contentStatsVersion;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
     private User author;
     
+    // Normalized form of the tags string, kept in sync by TagService
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "post_tags",
+               joinColumns = @JoinColumn(name = "post_id"),
+               inverseJoinColumns = @JoinColumn(name = "tag_id"),
+               indexes = @Index(name = "idx_post_tags_tag", columnList = "tag_id, post_id"))
+    private Set<Tag> tagSet = new HashSet<>();
+    
     // Constructors
     public Post() {}
     
@@ -42,9 +78,50 @@ public class Post extends AbstractEntity {
     
     // Business methods
     public String getShortContent(int length) {
-        if (content == null) return "";
-        return content.length() > length ? 
-               content.substring(0, length) + "..." : content;
+        // Rows not yet backfilled fall back to deriving the excerpt on the fly
+        String text;
+        int fullLength;
+        if (excerpt != null && charCount != null) {
+            text = excerpt;
+            fullLength = charCount;
+        } else {
+            HtmlText.Stats stats = HtmlText.analyze(content, EXCERPT_LENGTH);
+            text = excerpt != null ? excerpt : stats.getExcerpt();
+            fullLength = charCount != null ? charCount : stats.getCharCount();
+        }
+        return fullLength > length ? 
+               text.substring(0, Math.min(length, text.length())) + "..." : text;
+    }
+    
+    public int getReadingMinutes() {
+        int words = wordCount != null ? wordCount : HtmlText.analyze(content, 0).getWordCount();
+        return Math.max(1, words / WORDS_PER_MINUTE);
+    }
+    
+    public void refreshContentStats() {
+        HtmlText.Stats stats = HtmlText.analyze(content, EXCERPT_LENGTH);
+        wordCount = stats.getWordCount();
+        charCount = stats.getCharCount();
+        excerpt = stats.getExcerpt();
+        contentStatsVersion = CONTENT_STATS_VERSION;
+    }
+    
+    // A detached copy for one request, so the instance held in the post cache is never bound
+    // to a form or changed in place. Loaded tag links are copied; unloaded ones stay unloaded
+    public Post copy() {
+        Post copy = new Post(title, content, author);
+        copy.setId(getId());
+        copy.setCreatedAt(getCreatedAt());
+        copy.setUpdatedAt(getUpdatedAt());
+        copy.summary = summary;
+        copy.tags = tags;
+        copy.isPublished = isPublished;
+        copy.wordCount = wordCount;
+        copy.charCount = charCount;
+        copy.excerpt = excerpt;
+        copy.contentStatsVersion = contentStatsVersion;
+        copy.tagSet = Hibernate.isInitialized(tagSet) ? new HashSet<>(tagSet) : tagSet;
+        return copy;
     }
     
     public String[] getTagArray() {
@@ -70,6 +147,21 @@ public class Post extends AbstractEntity {
     public Boolean getIsPublished() { return isPublished; }
     public void setIsPublished(Boolean isPublished) { this.isPublished = isPublished; }
     
+    public Integer getWordCount() { return wordCount; }
+    public void setWordCount(Integer wordCount) { this.wordCount = wordCount; }
+    
+    public Integer getCharCount() { return charCount; }
+    public void setCharCount(Integer charCount) { this.charCount = charCount; }
+    
+    public String getExcerpt() { return excerpt; }
+    public void setExcerpt(String excerpt) { this.excerpt = excerpt; }
+    
+    public Integer getContentStatsVersion() { return contentStatsVersion; }
+    public void setContentStatsVersion(Integer contentStatsVersion) { this.contentStatsVersion = contentStatsVersion; }
+    
     public User getAuthor() { return author; }
     public void setAuthor(User author) { this.author = author; }
+    
+    public Set<Tag> getTagSet() { return tagSet; }
+    public void setTagSet(Set<Tag> tagSet) { this.tagSet = tagSet; }
 }
@@ -0,0 +1,44 @@
+package com.blog.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+@Entity
+@Table(name = "tags", indexes = {
+    @Index(name = "idx_tags_published_post_count", columnList = "published_post_count")
+})
+public class Tag extends AbstractEntity {
+    
+    public static final int MAX_NAME_LENGTH = 50;
+    
+    @NotBlank(message = "Tag name is required")
+    @Size(max = MAX_NAME_LENGTH, message = "Tag cannot exceed 50 characters")
+    @Column(unique = true, nullable = false, length = MAX_NAME_LENGTH)
+    private String name;
+    
+    // Maintained incrementally by TagService as posts are published, edited and deleted
+    @Column(name = "published_post_count", nullable = false)
+    private Integer publishedPostCount = 0;
+    
+    // Constructors
+    public Tag() {}
+    
+    public Tag(String name) {
+        this.name = name;
+    }
+    
+    // Business method
+    public static String normalizeName(String raw) {
+        if (raw == null) return "";
+        String name = raw.trim().toLowerCase();
+        return name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+    }
+    
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public Integer getPublishedPostCount() { return publishedPostCount; }
+    public void setPublishedPostCount(Integer publishedPostCount) { this.publishedPostCount = publishedPostCount; }
+}
@@ -1,37 +1,142 @@
 package com.blog.repository;
 
+import com.blog.dto.PostCardDto;
+import com.blog.dto.PostSetVersion;
+import com.blog.dto.PostVersion;
 import com.blog.model.Post;
 import com.blog.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
     
+    // List pages select card columns plus the author's name in one statement, never the LONGTEXT content
+    String CARD_SELECT = "SELECT new com.blog.dto.PostCardDto(p.id, p.title, p.summary, p.excerpt, p.charCount, " +
+                         "p.tags, p.isPublished, p.createdAt, p.updatedAt, a.id, a.firstName, a.lastName) " +
+                         "FROM Post p JOIN p.author a ";
+    
+    String MATCHES_PATTERN = "p.title LIKE :pattern ESCAPE '!' OR p.tags LIKE :pattern ESCAPE '!' " +
+                             "OR p.content LIKE :pattern ESCAPE '!'";
+    
+    // Entity reads that callers render fetch the author in the same statement; the derived
+    // count queries of the Page variants are unaffected by the graph
+    @EntityGraph(attributePaths = "author")
     List<Post> findByAuthor(User author);
     
+    @EntityGraph(attributePaths = "author")
     Page<Post> findByIsPublishedTrue(Pageable pageable);
     
+    @EntityGraph(attributePaths = "author")
     Page<Post> findByAuthor(User author, Pageable pageable);
     
-    // Simple approach - handle case conversion in service layer
-    @Query("SELECT p FROM Post p WHERE p.isPublished = true AND " +
-           "(p.title LIKE CONCAT('%', :keyword, '%') OR " +
-           "p.content LIKE CONCAT('%', :keyword, '%') OR " +
-           "p.tags LIKE CONCAT('%', :keyword, '%'))")
-    Page<Post> searchPublishedPosts(@Param("keyword") String keyword, Pageable pageable);
-    
-    @Query("SELECT p FROM Post p WHERE p.author = :author AND " +
-           "(p.title LIKE CONCAT('%', :keyword, '%') OR " +
-           "p.content LIKE CONCAT('%', :keyword, '%') OR " +
-           "p.tags LIKE CONCAT('%', :keyword, '%'))")
-    Page<Post> searchUserPosts(@Param("author") User author, @Param("keyword") String keyword, Pageable pageable);
-    
-    @Query("SELECT DISTINCT p.tags FROM Post p WHERE p.tags IS NOT NULL AND p.isPublished = true")
-    List<String> findAllUniqueTags();
+    // Post page reads load the author in the same statement so a cached post never needs a lazy load
+    @EntityGraph(attributePaths = "author")
+    Optional<Post> findWithAuthorById(Long id);
+    
+    @Query(value = CARD_SELECT + "WHERE p.author = :author",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.author = :author")
+    Page<PostCardDto> findCardsByAuthor(@Param("author") User author, Pageable pageable);
+    
+    @Query(value = CARD_SELECT + "WHERE p.isPublished = true",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.isPublished = true")
+    Page<PostCardDto> findPublishedCards(Pageable pageable);
+    
+    // Keyset pages: "older" walks forward from a cursor, "newer" walks back towards the start
+    @Query(CARD_SELECT + "WHERE p.author = :author AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostCardDto> findCardsByAuthorOlderThan(@Param("author") User author, @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id, Pageable pageable);
+    
+    @Query(CARD_SELECT + "WHERE p.author = :author AND " +
+           "(p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id)) " +
+           "ORDER BY p.createdAt ASC, p.id ASC")
+    List<PostCardDto> findCardsByAuthorNewerThan(@Param("author") User author, @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id, Pageable pageable);
+    
+    @Query(CARD_SELECT + "WHERE p.isPublished = true AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostCardDto> findPublishedCardsOlderThan(@Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id, Pageable pageable);
+    
+    @Query(CARD_SELECT + "WHERE p.isPublished = true AND " +
+           "(p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id)) " +
+           "ORDER BY p.createdAt ASC, p.id ASC")
+    List<PostCardDto> findPublishedCardsNewerThan(@Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id, Pageable pageable);
+    
+    // Substring search for while the search index is still being built, case-insensitive under
+    // MySQL's default collation. The pattern is escaped with '!', which unlike a backslash
+    // needs no escaping in MySQL string literals
+    @Query(value = CARD_SELECT + "WHERE p.isPublished = true AND (" + MATCHES_PATTERN + ")",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.isPublished = true AND (" + MATCHES_PATTERN + ")")
+    Page<PostCardDto> searchPublishedCards(@Param("pattern") String pattern, Pageable pageable);
+    
+    @Query(value = CARD_SELECT + "WHERE p.author = :author AND (" + MATCHES_PATTERN + ")",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.author = :author AND (" + MATCHES_PATTERN + ")")
+    Page<PostCardDto> searchCardsByAuthor(@Param("author") User author, @Param("pattern") String pattern, Pageable pageable);
+    
+    @Query(CARD_SELECT + "WHERE p.id IN :ids")
+    List<PostCardDto> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT new com.blog.dto.PostVersion(p.id, p.updatedAt, a.updatedAt) FROM Post p JOIN p.author a WHERE p.id = :id")
+    Optional<PostVersion> findVersionById(@Param("id") Long id);
+    
+    @Query("SELECT new com.blog.dto.PostSetVersion(COUNT(p), MAX(p.updatedAt)) FROM Post p WHERE p.author = :author")
+    PostSetVersion findVersionByAuthor(@Param("author") User author);
+    
+    // Forward-only cursor for exports; must be consumed inside a transaction.
+    // MySQL only streams with useCursorFetch=true on the JDBC URL, otherwise the driver buffers the result.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Post p JOIN FETCH p.author WHERE p.author = :author ORDER BY p.createdAt, p.id")
+    Stream<Post> streamByAuthor(@Param("author") User author);
+    
+    // Keyset batches used to rebuild the search index
+    List<Post> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    
+    // Rows whose word count, char count and excerpt are missing or were derived by an older
+    // version of HtmlText. Loaded read-only so recomputing the stats in memory never dirties the entity.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT p FROM Post p WHERE p.contentStatsVersion IS NULL OR p.contentStatsVersion < :version ORDER BY p.id")
+    List<Post> findWithStaleContentStats(@Param("version") Integer version, Pageable pageable);
+    
+    // Bulk update so backfilling doesn't trigger @PreUpdate and bump updatedAt
+    @Modifying
+    @Query("UPDATE Post p SET p.wordCount = :wordCount, p.charCount = :charCount, p.excerpt = :excerpt, " +
+           "p.contentStatsVersion = :version WHERE p.id = :id")
+    int updateContentStats(@Param("id") Long id, @Param("wordCount") Integer wordCount,
+                           @Param("charCount") Integer charCount, @Param("excerpt") String excerpt,
+                           @Param("version") Integer version);
+    
+    @Query(value = CARD_SELECT + "JOIN p.tagSet t WHERE t.name = :name AND p.isPublished = true",
+           countQuery = "SELECT COUNT(p) FROM Post p JOIN p.tagSet t WHERE t.name = :name AND p.isPublished = true")
+    Page<PostCardDto> findPublishedCardsByTagName(@Param("name") String name, Pageable pageable);
+    
+    // Posts whose tag string predates the post_tags join table
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT p FROM Post p WHERE p.id > :afterId AND p.tags IS NOT NULL AND p.tags <> '' AND p.tagSet IS EMPTY ORDER BY p.id")
+    List<Post> findUnlinkedTaggedPosts(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Modifying
+    @Query(value = "INSERT INTO post_tags (post_id, tag_id) VALUES (:postId, :tagId)", nativeQuery = true)
+    int insertTagLink(@Param("postId") Long postId, @Param("tagId") Long tagId);
 }
\ No newline at end of file
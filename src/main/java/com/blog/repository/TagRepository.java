@@ -0,0 +1,30 @@
+package com.blog.repository;
+
+import com.blog.model.Tag;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+    
+    List<Tag> findByNameIn(Collection<String> names);
+    
+    // Reads the maintained counter, so cost grows with the number of tags rather than posts
+    List<Tag> findByPublishedPostCountGreaterThanOrderByPublishedPostCountDescNameAsc(int minimumCount, Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE Tag t SET t.publishedPostCount = t.publishedPostCount + :delta WHERE t.id IN :ids")
+    int adjustPublishedPostCount(@Param("ids") Collection<Long> ids, @Param("delta") int delta);
+    
+    // Full recount used to repair drift, e.g. after posts are removed by a cascading user delete
+    @Modifying
+    @Query("UPDATE Tag t SET t.publishedPostCount = " +
+           "(SELECT COUNT(p) FROM Post p JOIN p.tagSet pt WHERE pt = t AND p.isPublished = true)")
+    int recountPublishedPosts();
+}
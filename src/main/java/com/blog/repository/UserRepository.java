@@ -1,10 +1,13 @@
 package com.blog.repository;
 
 import com.blog.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List; 
 import java.util.Optional;
 
@@ -19,6 +22,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     boolean existsByEmail(String email);
     
+    // Both unique fields checked in one round trip during registration
+    List<User> findByUsernameOrEmail(String username, String email);
+    
+    // Keyset batches of (id, username, email) for building the availability filters
+    @Query("SELECT u.id, u.username, u.email FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Object[]> findCredentialsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
     @Query("SELECT u FROM User u WHERE u.isActive = :isActive")
     List<User> findAllByIsActive(@Param("isActive") Boolean isActive);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
\ No newline at end of file
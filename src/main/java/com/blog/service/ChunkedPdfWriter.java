@@ -0,0 +1,247 @@
+package com.blog.service;
+
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.html2pdf.attach.impl.OutlineHandler;
+import com.itextpdf.html2pdf.attach.impl.TagOutlineMarkExtractor;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDate;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.utils.PdfMerger;
+import com.itextpdf.kernel.utils.PdfMergerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Renders a long PDF as a series of self-contained HTML chunks, each converted to its own
+ * segment file on disk, then merges the segments into one document. Only one chunk's DOM and
+ * layout tree is ever on the heap, so memory follows the chunk size rather than the post count.
+ *
+ * Post headings ({@code h2}) become PDF bookmarks in each segment and are carried over by the
+ * merge, giving the document a table of contents. Pages are numbered across the whole document
+ * while merging, since each segment on its own starts again at one.
+ *
+ * Given a pool, chunks are converted in parallel, with at most one chunk per pool thread in
+ * flight for this export. Segments are always merged in the order their chunks were added,
+ * so the result does not depend on which conversion finishes first.
+ *
+ * Output is byte-for-byte reproducible: the creation and modification dates are the given
+ * document date rather than the clock, and the trailer ID, which iText otherwise draws at
+ * random, is a digest of the chunk HTML.
+ */
+class ChunkedPdfWriter implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedPdfWriter.class);
+
+    private static final float PAGE_NUMBER_FONT_SIZE = 9f;
+    private static final float PAGE_NUMBER_BOTTOM_MARGIN = 20f;
+    private static final int DOCUMENT_ID_LENGTH = 16;
+
+    private final ForkJoinPool renderPool;
+    private final String documentDate;
+    private final int maxInFlight;
+    private final List<CompletableFuture<Segment>> segments = new ArrayList<>();
+    private int completed;
+    private int totalPages;
+
+    // A null pool converts each chunk on the calling thread
+    ChunkedPdfWriter(ForkJoinPool renderPool, LocalDateTime documentDate) {
+        this.renderPool = renderPool;
+        this.documentDate = new PdfDate(GregorianCalendar.from(documentDate.atZone(ZoneId.systemDefault())))
+                .getPdfObject().getValue();
+        this.maxInFlight = renderPool != null ? renderPool.getParallelism() : 1;
+    }
+
+    // Converts one complete HTML document to the next segment
+    void addChunk(String html) throws IOException {
+        if (renderPool == null) {
+            segments.add(CompletableFuture.completedFuture(render(html)));
+            return;
+        }
+        // Wait for the oldest conversion before queueing more, so chunk HTML can't pile up
+        while (segments.size() - completed >= maxInFlight) {
+            await(segments.get(completed++));
+        }
+        segments.add(CompletableFuture.supplyAsync(() -> {
+            try {
+                return render(html);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, renderPool));
+    }
+
+    private Segment render(String html) throws IOException {
+        byte[] documentId = digest(html.getBytes(StandardCharsets.UTF_8));
+        Path file = Files.createTempFile("blog-pdf-segment-", ".pdf");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                // The converter closes the document
+                PdfDocument document = new PdfDocument(new PdfWriter(out, writerProperties(documentId)));
+                setDates(document);
+                HtmlConverter.convertToPdf(html, document, converterProperties());
+            }
+            try (PdfDocument segment = new PdfDocument(new PdfReader(file.toFile()))) {
+                return new Segment(file, segment.getNumberOfPages(), documentId);
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    private static Segment await(CompletableFuture<Segment> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw e;
+        }
+    }
+
+    /**
+     * Merges the segments in order into {@code outputStream}, stamping "Page n of N" on every
+     * page. Each merged page is flushed as soon as it is stamped. The stream is left open.
+     */
+    void writeTo(OutputStream outputStream) throws IOException {
+        List<Segment> rendered = new ArrayList<>(segments.size());
+        totalPages = 0;
+        // Segment IDs digest their chunk HTML, so a digest of them in order stands for the whole document
+        MessageDigest documentDigest = sha256();
+        for (CompletableFuture<Segment> future : segments) {
+            Segment segment = await(future);
+            rendered.add(segment);
+            totalPages += segment.pages;
+            documentDigest.update(segment.documentId);
+        }
+
+        PdfWriter writer = new PdfWriter(outputStream,
+                writerProperties(Arrays.copyOf(documentDigest.digest(), DOCUMENT_ID_LENGTH)));
+        writer.setCloseStream(false);
+        PdfDocument merged = new PdfDocument(writer);
+        setDates(merged);
+        try {
+            PdfMerger merger = new PdfMerger(merged, new PdfMergerProperties().setMergeTags(false).setMergeOutlines(true));
+            PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+            int pageNumber = 0;
+            for (Segment segment : rendered) {
+                try (PdfDocument source = new PdfDocument(new PdfReader(segment.file.toFile()))) {
+                    merger.merge(source, 1, source.getNumberOfPages());
+                }
+                for (int i = 0; i < segment.pages; i++) {
+                    pageNumber++;
+                    PdfPage page = merged.getPage(pageNumber);
+                    stampPageNumber(merged, page, font, pageNumber);
+                    page.flush();
+                }
+            }
+        } finally {
+            merged.close();
+        }
+    }
+
+    // Waits out any conversions still running so their segment files are removed too
+    @Override
+    public void close() {
+        for (CompletableFuture<Segment> future : segments) {
+            try {
+                deleteQuietly(future.join().file);
+            } catch (CompletionException e) {
+                // The failed conversion already removed its file
+            }
+        }
+        segments.clear();
+    }
+
+    private void stampPageNumber(PdfDocument document, PdfPage page, PdfFont font, int pageNumber) {
+        String label = "Page " + pageNumber + " of " + totalPages;
+        Rectangle size = page.getPageSize();
+        float x = size.getLeft() + (size.getWidth() - font.getWidth(label, PAGE_NUMBER_FONT_SIZE)) / 2;
+        new PdfCanvas(page.newContentStreamAfter(), page.getResources(), document)
+                .beginText()
+                .setFontAndSize(font, PAGE_NUMBER_FONT_SIZE)
+                .moveText(x, size.getBottom() + PAGE_NUMBER_BOTTOM_MARGIN)
+                .showText(label)
+                .endText()
+                .release();
+    }
+
+    private void setDates(PdfDocument document) {
+        document.getDocumentInfo().setMoreInfo("CreationDate", documentDate);
+        document.getDocumentInfo().setMoreInfo("ModDate", documentDate);
+    }
+
+    private static WriterProperties writerProperties(byte[] documentId) {
+        PdfString id = new PdfString(documentId).setHexWriting(true);
+        return new WriterProperties().setInitialDocumentId(id).setModifiedDocumentId(id);
+    }
+
+    private static byte[] digest(byte[] content) {
+        return Arrays.copyOf(sha256().digest(content), DOCUMENT_ID_LENGTH);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // h2 is the post title level; the collection heading is left out of the bookmarks
+    private static ConverterProperties converterProperties() {
+        ConverterProperties properties = new ConverterProperties();
+        properties.setOutlineHandler(OutlineHandler.createHandler(new TagOutlineMarkExtractor()).putMarkPriorityMapping("h2", 1));
+        return properties;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete PDF segment {}", file, e);
+        }
+    }
+
+    private static final class Segment {
+        final Path file;
+        final int pages;
+        final byte[] documentId;
+
+        Segment(Path file, int pages, byte[] documentId) {
+            this.file = file;
+            this.pages = pages;
+            this.documentId = documentId;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.blog.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-bounded LRU of rendered export files on local disk. Keys embed the version of the
+ * posts that went into the file, so edits simply produce a new key and stale files age out.
+ *
+ * Files handed out by {@link #getOrCreate} stay pinned until the returned {@link Entry} is
+ * closed; eviction skips pinned files, so a download is never cut short by another miss.
+ * Concurrent misses for one key render it once; the other requests wait and get the result.
+ * A miss can also stream the output to a {@link Tee} as it is written, so the request that
+ * renders does not wait for the whole file before sending the first byte.
+ */
+@Component
+public class ExportCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportCache.class);
+
+    @FunctionalInterface
+    public interface ArtifactWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    // A second destination for a miss, such as the response, opened by the request that renders
+    @FunctionalInterface
+    public interface Tee {
+        OutputStream open() throws IOException;
+    }
+
+    @Value("${blog.export.cache.dir:${java.io.tmpdir}/blog-export-cache}")
+    private String cacheDirectory;
+
+    @Value("${blog.export.cache.max-size-mb:512}")
+    private long maxSizeMb;
+
+    // How long a sendfile link outlives its request; the connector opens it long before
+    @Value("${blog.export.cache.serving-link-seconds:300}")
+    private long servingLinkSeconds;
+
+    // file name -> size in bytes, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // file name -> number of open Entry handles
+    private final Map<String, Integer> pins = new HashMap<>();
+    // file name -> render in progress, completed (either way) when it ends
+    private final Map<String, CompletableFuture<Void>> rendering = new HashMap<>();
+    // Hard links handed out for sendfile, oldest first
+    private final ArrayDeque<ServingLink> servingLinks = new ArrayDeque<>();
+    private final AtomicLong servingLinkSequence = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private Path cacheDir;
+    private Path servingDir;
+    private long maxBytes;
+    private long currentBytes;
+
+    @PostConstruct
+    public void init() throws IOException {
+        cacheDir = Paths.get(cacheDirectory);
+        maxBytes = maxSizeMb * 1024 * 1024;
+        Files.createDirectories(cacheDir);
+        servingDir = cacheDir.resolve("serving");
+        Files.createDirectories(servingDir);
+        try (DirectoryStream<Path> links = Files.newDirectoryStream(servingDir)) {
+            for (Path link : links) {
+                Files.deleteIfExists(link);
+            }
+        }
+
+        // Re-adopt artifacts from a previous run, oldest first so they are evicted first
+        List<Path> existing = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir)) {
+            for (Path file : files) {
+                if (Files.isDirectory(file)) {
+                    continue;
+                }
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else {
+                    existing.add(file);
+                }
+            }
+        }
+        existing.sort(Comparator.comparingLong(file -> file.toFile().lastModified()));
+        lock.lock();
+        try {
+            for (Path file : existing) {
+                long size = Files.size(file);
+                entries.put(file.getFileName().toString(), size);
+                currentBytes += size;
+            }
+            evictOverflow();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the cached file for {@code key}, rendering it with {@code writer} on a miss.
+     * The file is pinned until the entry is closed, so read it inside try-with-resources.
+     */
+    public Entry getOrCreate(String key, ArtifactWriter writer) throws IOException {
+        return getOrCreate(key, writer, null);
+    }
+
+    /**
+     * Like {@link #getOrCreate(String, ArtifactWriter)}, but if this call renders the file
+     * its output is also written to {@code tee}, and the entry reports {@link Entry#isStreamed()}.
+     */
+    public Entry getOrCreate(String key, ArtifactWriter writer, Tee tee) throws IOException {
+        String fileName = digest(key);
+        Path file = cacheDir.resolve(fileName);
+
+        CompletableFuture<Void> render = new CompletableFuture<>();
+        while (true) {
+            CompletableFuture<Void> inFlight;
+            lock.lock();
+            try {
+                if (entries.get(fileName) != null && Files.exists(file)) {
+                    hits.incrementAndGet();
+                    return pin(fileName, file, false);
+                }
+                inFlight = rendering.putIfAbsent(fileName, render);
+            } finally {
+                lock.unlock();
+            }
+            if (inFlight == null) {
+                break;
+            }
+            // Another request is rendering this file; if that fails, one of the waiters takes over
+            inFlight.join();
+        }
+        misses.incrementAndGet();
+
+        try {
+            return render(fileName, file, writer, tee);
+        } finally {
+            lock.lock();
+            try {
+                rendering.remove(fileName);
+            } finally {
+                lock.unlock();
+            }
+            render.complete(null);
+        }
+    }
+
+    // Renders outside the lock into a temporary file that is moved into place when complete
+    private Entry render(String fileName, Path file, ArtifactWriter writer, Tee tee) throws IOException {
+        Path temp = Files.createTempFile(cacheDir, fileName, ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                if (tee == null) {
+                    writer.write(out);
+                } else {
+                    OutputStream live = tee.open();
+                    writer.write(new TeeOutputStream(out, live));
+                    live.flush();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        long size = Files.size(file);
+        lock.lock();
+        try {
+            Long previous = entries.put(fileName, size);
+            currentBytes += size - (previous != null ? previous : 0L);
+            // Pinned before evicting, so the new entry can never be the one removed
+            Entry entry = pin(fileName, file, tee != null);
+            evictOverflow();
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A new hard link to the entry's file, for Tomcat's sendfile. The connector opens the file
+     * only after the handler has returned and closed the entry, by when the cached file may
+     * have been evicted; the link keeps the same bytes reachable. Links are deleted once they
+     * are older than blog.export.cache.serving-link-seconds, as an open file outlives its
+     * last link. Empty if the file system has no hard links.
+     */
+    public Optional<Path> servingLink(Entry entry) {
+        Path link = servingDir.resolve(entry.fileName + "." + servingLinkSequence.incrementAndGet());
+        try {
+            Files.createLink(link, entry.path);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.debug("Could not link {} for sendfile", entry.fileName, e);
+            return Optional.empty();
+        }
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            servingLinks.add(new ServingLink(link, now));
+            removeExpiredLinks(now);
+        } finally {
+            lock.unlock();
+        }
+        return Optional.of(link);
+    }
+
+    // Caller holds the lock
+    private void removeExpiredLinks(long now) {
+        long maxAge = TimeUnit.SECONDS.toNanos(servingLinkSeconds);
+        while (!servingLinks.isEmpty() && now - servingLinks.peek().createdNanos() > maxAge) {
+            Path link = servingLinks.poll().path();
+            try {
+                Files.deleteIfExists(link);
+            } catch (IOException e) {
+                logger.warn("Could not delete sendfile link {}", link, e);
+            }
+        }
+    }
+
+    private record ServingLink(Path path, long createdNanos) {
+    }
+
+    // Caller holds the lock
+    private Entry pin(String fileName, Path file, boolean streamed) {
+        pins.merge(fileName, 1, Integer::sum);
+        return new Entry(fileName, file, streamed);
+    }
+
+    private void unpin(String fileName) {
+        lock.lock();
+        try {
+            if (pins.merge(fileName, -1, Integer::sum) <= 0) {
+                pins.remove(fileName);
+                // Overflow left behind while this file was pinned can go now
+                evictOverflow();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+
+    public int getEntryCount() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSizeBytes() {
+        lock.lock();
+        try {
+            return currentBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock. Pinned files are being served and are skipped; the cache may
+    // stay over its limit until they are released.
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && entries.size() > 1 && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (pins.containsKey(eldest.getKey())) {
+                continue;
+            }
+            iterator.remove();
+            currentBytes -= eldest.getValue();
+            evictions.incrementAndGet();
+            try {
+                Files.deleteIfExists(cacheDir.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                logger.warn("Could not delete evicted export {}", eldest.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * A cached file that will not be evicted until this handle is closed.
+     */
+    public final class Entry implements Closeable {
+        private final String fileName;
+        private final Path path;
+        private final boolean streamed;
+        private boolean closed;
+
+        private Entry(String fileName, Path path, boolean streamed) {
+            this.fileName = fileName;
+            this.path = path;
+            this.streamed = streamed;
+        }
+
+        public Path getPath() { return path; }
+
+        // True when this request rendered the file and already wrote it to its tee
+        public boolean isStreamed() { return streamed; }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                unpin(fileName);
+            }
+        }
+    }
+
+    // Writes to the cache file and the tee; closing closes only the file, since the tee
+    // (typically the response) belongs to the caller
+    private static final class TeeOutputStream extends OutputStream {
+        private final OutputStream file;
+        private final OutputStream tee;
+
+        TeeOutputStream(OutputStream file, OutputStream tee) {
+            this.file = file;
+            this.tee = tee;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            file.write(b);
+            tee.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            file.write(b, off, len);
+            tee.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            file.flush();
+            tee.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            tee.flush();
+            file.close();
+        }
+    }
+
+    // Hex SHA-256 of a cache key; also serves as the export's HTTP entity tag
+    public static String digest(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
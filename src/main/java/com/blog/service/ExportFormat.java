@@ -0,0 +1,37 @@
+package com.blog.service;
+
+public enum ExportFormat {
+    
+    EXCEL("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", true),
+    CSV("csv", "text/csv", true),
+    PDF("pdf", "application/pdf", true),
+    WORD("docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document", false),
+    // Archive of per-post Word and PDF files
+    ZIP("zip", "application/zip", true);
+    
+    private final String extension;
+    private final String contentType;
+    private final boolean bulkSupported;
+    
+    ExportFormat(String extension, String contentType, boolean bulkSupported) {
+        this.extension = extension;
+        this.contentType = contentType;
+        this.bulkSupported = bulkSupported;
+    }
+    
+    public static ExportFormat fromName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name) || format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + name);
+    }
+    
+    public String getExtension() { return extension; }
+    
+    public String getContentType() { return contentType; }
+    
+    // Whether the format can export all of an author's posts, not just a single post
+    public boolean isBulkSupported() { return bulkSupported; }
+}
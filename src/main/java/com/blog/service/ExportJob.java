@@ -0,0 +1,77 @@
+package com.blog.service;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * State of an asynchronous export. Mutated by the worker thread, read by status polls.
+ */
+public class ExportJob {
+    
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+    
+    private final String id;
+    private final Long ownerId;
+    private final ExportFormat format;
+    private final Long postId;
+    private final String fileName;
+    private final long totalPosts;
+    private final AtomicInteger processedPosts = new AtomicInteger();
+    private final Instant createdAt = Instant.now();
+    
+    private volatile Status status = Status.QUEUED;
+    private volatile Path file;
+    private volatile long fileSize;
+    private volatile String error;
+    private volatile Instant finishedAt;
+    
+    public ExportJob(String id, Long ownerId, ExportFormat format, Long postId, String fileName, long totalPosts) {
+        this.id = id;
+        this.ownerId = ownerId;
+        this.format = format;
+        this.postId = postId;
+        this.fileName = fileName;
+        this.totalPosts = totalPosts;
+    }
+    
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+    
+    void postExported() {
+        processedPosts.incrementAndGet();
+    }
+    
+    void markCompleted(Path file, long fileSize) {
+        this.file = file;
+        this.fileSize = fileSize;
+        this.finishedAt = Instant.now();
+        this.status = Status.COMPLETED;
+    }
+    
+    void markFailed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+    
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+    
+    // Getters
+    public String getId() { return id; }
+    public Long getOwnerId() { return ownerId; }
+    public ExportFormat getFormat() { return format; }
+    public Long getPostId() { return postId; }
+    public String getFileName() { return fileName; }
+    public long getTotalPosts() { return totalPosts; }
+    public int getProcessedPosts() { return processedPosts.get(); }
+    public Instant getCreatedAt() { return createdAt; }
+    public Status getStatus() { return status; }
+    public Path getFile() { return file; }
+    public long getFileSize() { return fileSize; }
+    public String getError() { return error; }
+    public Instant getFinishedAt() { return finishedAt; }
+}
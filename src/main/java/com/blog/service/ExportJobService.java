@@ -0,0 +1,216 @@
+package com.blog.service;
+
+import com.blog.dto.ExportJobStatus;
+import com.blog.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs exports on a bounded worker pool, spooling each finished file to local disk
+ * until it is downloaded or its TTL runs out.
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportJobService.class);
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private PostService postService;
+
+    @Value("${blog.export.jobs.spool-dir:${java.io.tmpdir}/blog-export-jobs}")
+    private String spoolDirectory;
+
+    @Value("${blog.export.jobs.workers:2}")
+    private int workers;
+
+    @Value("${blog.export.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${blog.export.jobs.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${blog.threads.virtual:false}")
+    private boolean virtualThreads;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private Path spoolDir;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() throws IOException {
+        spoolDir = Paths.get(spoolDirectory);
+        Files.createDirectories(spoolDir);
+        // Jobs don't survive a restart, so neither do their files
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(spoolDir)) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+
+        // The pool stays bounded either way; virtual workers just don't hold a platform
+        // thread while they wait on the database
+        ThreadFactory threadFactory;
+        if (virtualThreads) {
+            threadFactory = Thread.ofVirtual().name("export-job-", 1).factory();
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "export-job-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ExportJob submit(User owner, ExportFormat format, Long postId) {
+        long totalPosts;
+        String fileName;
+        if (postId != null) {
+            if (postService.findById(postId).isEmpty()) {
+                throw new IllegalArgumentException("Post not found");
+            }
+            totalPosts = 1;
+            fileName = "post_" + postId + "." + format.getExtension();
+        } else {
+            if (!format.isBulkSupported()) {
+                throw new IllegalArgumentException(format + " export requires a post id");
+            }
+            totalPosts = postService.countUserPosts(owner);
+            fileName = owner.getUsername() + "_posts." + format.getExtension();
+        }
+
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), owner.getId(), format, postId, fileName, totalPosts);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, owner));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new ServiceBusyException("Too many exports in progress. Please try again shortly.");
+        }
+        return job;
+    }
+
+    // Jobs are only visible to the user who submitted them
+    public Optional<ExportJob> findJob(String jobId, User owner) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null || !job.getOwnerId().equals(owner.getId())) {
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    @Scheduled(fixedDelayString = "${blog.export.jobs.cleanup-interval-ms:60000}")
+    public void expireFinishedJobs() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(ttlMinutes));
+        jobs.values().removeIf(job -> {
+            if (!job.isFinished() || job.getFinishedAt().isAfter(cutoff)) {
+                return false;
+            }
+            deleteQuietly(job.getFile());
+            return true;
+        });
+    }
+
+    private void run(ExportJob job, User owner) {
+        job.markRunning();
+        Path file = spoolDir.resolve(job.getId() + "." + job.getFormat().getExtension());
+        ExportProgress progress = job::postExported;
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            if (job.getPostId() != null) {
+                writeSinglePost(job.getFormat(), job.getPostId(), out);
+                progress.postExported();
+            } else {
+                switch (job.getFormat()) {
+                    case EXCEL -> exportService.exportPostsToExcel(owner, out, progress);
+                    case CSV -> exportService.exportPostsToCSV(owner, out, progress);
+                    case PDF -> exportService.exportPostsToPdf(owner, out, progress);
+                    case ZIP -> exportService.exportPostsToZip(owner, ExportService.ZIP_DOCUMENT_FORMATS, out, progress);
+                    default -> throw new IllegalArgumentException(job.getFormat() + " export requires a post id");
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Export job {} ({}) failed", job.getId(), job.getFormat(), e);
+            deleteQuietly(file);
+            job.markFailed("Export failed. Please try again.");
+            return;
+        }
+
+        try {
+            job.markCompleted(file, Files.size(file));
+        } catch (IOException e) {
+            deleteQuietly(file);
+            job.markFailed("Export failed. Please try again.");
+        }
+    }
+
+    private void writeSinglePost(ExportFormat format, Long postId, OutputStream out) throws IOException {
+        switch (format) {
+            case WORD -> out.write(exportService.exportPostToWord(postId));
+            case PDF -> out.write(exportService.exportPostToPdf(postId));
+            default -> throw new IllegalArgumentException(format + " export is not available for a single post");
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    // Convert job to DTO
+    public ExportJobStatus convertToDto(ExportJob job) {
+        ExportJobStatus dto = new ExportJobStatus();
+        dto.setId(job.getId());
+        dto.setFormat(job.getFormat().name());
+        dto.setStatus(job.getStatus().name());
+        dto.setTotalPosts(job.getTotalPosts());
+        dto.setProcessedPosts(job.getProcessedPosts());
+        dto.setError(job.getError());
+        dto.setStatusUrl("/export/jobs/" + job.getId());
+        if (job.getStatus() == ExportJob.Status.COMPLETED) {
+            dto.setFileSize(job.getFileSize());
+            dto.setDownloadUrl("/export/jobs/" + job.getId() + "/download");
+        }
+        return dto;
+    }
+}
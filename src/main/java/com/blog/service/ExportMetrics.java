@@ -0,0 +1,109 @@
+package com.blog.service;
+
+import com.blog.metrics.RequestTiming;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-format export duration and output size histograms, plus a gauge of exports in flight.
+ * Exports run from requests and background jobs alike, so both are counted here.
+ */
+@Component
+public class ExportMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<ExportFormat, FormatMeters> meters = new EnumMap<>(ExportFormat.class);
+
+    @PostConstruct
+    public void init() {
+        for (ExportFormat format : ExportFormat.values()) {
+            meters.put(format, new FormatMeters(meterRegistry, format));
+        }
+    }
+
+    // Runs the export through a byte-counting stream and records it under the format
+    public void record(ExportFormat format, OutputStream outputStream, ExportCache.ArtifactWriter writer) throws IOException {
+        FormatMeters formatMeters = meters.get(format);
+        CountingOutputStream counting = new CountingOutputStream(outputStream);
+        formatMeters.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            writer.write(counting);
+            succeeded = true;
+        } finally {
+            formatMeters.inFlight.decrementAndGet();
+            long elapsed = System.nanoTime() - start;
+            RequestTiming.recordExport(elapsed);
+            if (succeeded) {
+                formatMeters.succeeded.record(elapsed, TimeUnit.NANOSECONDS);
+                formatMeters.size.record(counting.count);
+            } else {
+                formatMeters.failed.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private static final class FormatMeters {
+        final Timer succeeded;
+        final Timer failed;
+        final DistributionSummary size;
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        FormatMeters(MeterRegistry registry, ExportFormat format) {
+            String formatName = format.getExtension();
+            this.succeeded = exportTimer(registry, formatName, "success");
+            this.failed = exportTimer(registry, formatName, "failure");
+            this.size = DistributionSummary.builder("blog.export.size")
+                    .baseUnit("bytes")
+                    .tag("format", formatName)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            registry.gauge("blog.export.in_flight", Tags.of("format", formatName), inFlight);
+        }
+
+        private static Timer exportTimer(MeterRegistry registry, String formatName, String outcome) {
+            return Timer.builder("blog.export.duration")
+                    .tag("format", formatName)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+
+    // FilterOutputStream would pass arrays through one byte at a time
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
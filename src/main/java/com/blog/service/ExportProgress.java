@@ -0,0 +1,12 @@
+package com.blog.service;
+
+/**
+ * Callback invoked by {@link ExportService} each time a post has been written to an export.
+ */
+@FunctionalInterface
+public interface ExportProgress {
+    
+    ExportProgress NONE = () -> {};
+    
+    void postExported();
+}
@@ -0,0 +1,48 @@
+package com.blog.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Dedicated fork/join pool for document rendering in bulk exports: PDF chunk conversion and
+ * the per-post files of the ZIP export. The work is CPU-bound, so the pool is sized to the
+ * cores and kept apart from request threads and the common pool.
+ */
+@Component
+public class ExportRenderPool {
+
+    // 0 means one thread per available core
+    @Value("${blog.export.render-threads:0}")
+    private int threads;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("export-render-" + thread.getPoolIndex());
+            return thread;
+        };
+        pool = new ForkJoinPool(parallelism, threadFactory, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+}
@@ -1,35 +1,110 @@
 package com.blog.service;
 
+import com.blog.dto.PostSetVersion;
+import com.blog.dto.PostVersion;
 import com.blog.model.Post;
 import com.blog.model.User;
+import com.blog.util.HtmlText;
 import com.itextpdf.html2pdf.ConverterProperties;
 import com.itextpdf.html2pdf.HtmlConverter;
 import com.opencsv.CSVWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import org.apache.poi.xwpf.usermodel.XWPFRun;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
+@Transactional(readOnly = true)
 public class ExportService {
     
     @Autowired
     private PostService postService;
     
-    public byte[] exportPostsToExcel(User author) throws IOException {
-        List<Post> posts = postService.getUserPosts(author);
+    @Autowired
+    private ExportRenderPool exportRenderPool;
+    
+    @Autowired
+    private ExportMetrics exportMetrics;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Rows beyond this window are flushed to a compressed temp file by SXSSF
+    private static final int EXCEL_ROW_WINDOW = 100;
+    // Column widths are estimated from the first rows instead of autosizing every cell
+    private static final int EXCEL_WIDTH_SAMPLE_ROWS = 200;
+    private static final int EXCEL_MAX_COLUMN_CHARS = 80;
+    // Per-post document formats the ZIP export can contain
+    public static final Set<ExportFormat> ZIP_DOCUMENT_FORMATS = Collections.unmodifiableSet(EnumSet.of(ExportFormat.WORD, ExportFormat.PDF));
+    
+    @Value("${blog.export.pdf.chunk-size:50}")
+    private int pdfChunkSize;
+    
+    // Cache keys embed the version of every post in the export, so any edit yields a new key
+    public String postExportKey(Long postId, ExportFormat format) {
+        PostVersion version = postService.findVersion(postId)
+                .orElseThrow(() -> new IllegalArgumentException("Post not found"));
+        return "post:" + postId + ":" + version.getUpdatedAt() + ":" + version.getAuthorUpdatedAt() + ":" + format;
+    }
+    
+    public String userPostsExportKey(User author, ExportFormat format) {
+        PostSetVersion version = postService.getUserPostsVersion(author);
+        // The author's name is rendered into the documents, so an account edit changes the key too
+        return "author:" + author.getId() + ":" + author.getUpdatedAt() + ":" + version.getMaxUpdatedAt() + ":"
+                + version.getCount() + ":" + format;
+    }
+    
+    public void exportPostsToExcel(User author, OutputStream outputStream) throws IOException {
+        exportPostsToExcel(author, outputStream, ExportProgress.NONE);
+    }
+    
+    public void exportPostsToExcel(User author, OutputStream outputStream, ExportProgress progress) throws IOException {
+        exportMetrics.record(ExportFormat.EXCEL, outputStream, out -> {
+            try (Stream<Post> posts = postService.streamUserPosts(author)) {
+                writeExcel(posts.iterator(), out, exported(progress));
+            }
+        });
+    }
+    
+    // Row writers take any iterator of posts so they can be benchmarked without a database
+    void writeExcel(Iterator<Post> iterator, OutputStream outputStream, Consumer<Post> afterRow) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
         
-        try (Workbook workbook = new XSSFWorkbook()) {
+        try {
             Sheet sheet = workbook.createSheet("Blog Posts");
             
             // Create header style
@@ -41,83 +116,127 @@ public class ExportService {
             // Create header row
             Row headerRow = sheet.createRow(0);
             String[] headers = {"ID", "Title", "Summary", "Tags", "Published", "Created Date", "Word Count"};
+            int[] columnChars = new int[headers.length];
             
             for (int i = 0; i < headers.length; i++) {
                 Cell cell = headerRow.createCell(i);
                 cell.setCellValue(headers[i]);
                 cell.setCellStyle(headerStyle);
+                columnChars[i] = headers[i].length();
             }
             
             // Fill data rows
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
             int rowNum = 1;
             
-            for (Post post : posts) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(post.getId());
-                row.createCell(1).setCellValue(post.getTitle());
-                row.createCell(2).setCellValue(post.getSummary() != null ? post.getSummary() : "");
-                row.createCell(3).setCellValue(post.getTags() != null ? post.getTags() : "");
-                row.createCell(4).setCellValue(post.getIsPublished() ? "Yes" : "No");
-                row.createCell(5).setCellValue(post.getCreatedAt().format(formatter));
+            while (iterator.hasNext()) {
+                Post post = iterator.next();
                 
-                // Calculate word count
-                String cleanContent = post.getContent().replaceAll("<[^>]*>", "").trim();
-                int wordCount = cleanContent.isEmpty() ? 0 : cleanContent.split("\\s+").length;
+                ensureContentStats(post);
+                int wordCount = post.getWordCount();
+                
+                String[] values = {
+                    post.getTitle(),
+                    post.getSummary() != null ? post.getSummary() : "",
+                    post.getTags() != null ? post.getTags() : "",
+                    post.getIsPublished() ? "Yes" : "No",
+                    post.getCreatedAt().format(formatter)
+                };
+                
+                Row row = sheet.createRow(rowNum);
+                row.createCell(0).setCellValue(post.getId());
+                for (int i = 0; i < values.length; i++) {
+                    row.createCell(i + 1).setCellValue(values[i]);
+                }
                 row.createCell(6).setCellValue(wordCount);
+                
+                if (rowNum <= EXCEL_WIDTH_SAMPLE_ROWS) {
+                    columnChars[0] = Math.max(columnChars[0], String.valueOf(post.getId()).length());
+                    for (int i = 0; i < values.length; i++) {
+                        columnChars[i + 1] = Math.max(columnChars[i + 1], values[i].length());
+                    }
+                    columnChars[6] = Math.max(columnChars[6], String.valueOf(wordCount).length());
+                }
+                rowNum++;
+                
+                afterRow.accept(post);
             }
             
-            // Auto-resize columns
+            // Column width is measured in 1/256ths of a character
             for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+                sheet.setColumnWidth(i, (Math.min(columnChars[i], EXCEL_MAX_COLUMN_CHARS) + 2) * 256);
             }
             
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             workbook.write(outputStream);
-            return outputStream.toByteArray();
+        } finally {
+            // Removes the temp files backing the flushed rows
+            workbook.dispose();
+            workbook.close();
         }
     }
     
-    // Enhanced CSV export using OpenCSV library
-    public String exportPostsToCSV(User author) throws IOException {
-        List<Post> posts = postService.getUserPosts(author);
-        StringWriter stringWriter = new StringWriter();
+    // Enhanced CSV export using OpenCSV library. Rows are streamed from a database cursor
+    // straight to the output, so memory stays flat regardless of how many posts the author has.
+    public void exportPostsToCSV(User author, OutputStream outputStream) throws IOException {
+        exportPostsToCSV(author, outputStream, ExportProgress.NONE);
+    }
+    
+    public void exportPostsToCSV(User author, OutputStream outputStream, ExportProgress progress) throws IOException {
+        exportMetrics.record(ExportFormat.CSV, outputStream, out -> {
+            try (Stream<Post> posts = postService.streamUserPosts(author)) {
+                writeCsv(posts.iterator(), out, exported(progress));
+            }
+        });
+    }
+    
+    void writeCsv(Iterator<Post> iterator, OutputStream outputStream, Consumer<Post> afterRow) throws IOException {
+        CSVWriter csvWriter = new CSVWriter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
         
-        try (CSVWriter csvWriter = new CSVWriter(stringWriter)) {
-            // Write header
-            String[] header = {"ID", "Title", "Summary", "Tags", "Published", "Created Date", "Updated Date", "Word Count", "Character Count"};
-            csvWriter.writeNext(header);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        // Write header
+        String[] header = {"ID", "Title", "Summary", "Tags", "Published", "Created Date", "Updated Date", "Word Count", "Character Count"};
+        csvWriter.writeNext(header);
+        
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        
+        // Write data rows
+        while (iterator.hasNext()) {
+            Post post = iterator.next();
+            ensureContentStats(post);
+            int wordCount = post.getWordCount();
+            int charCount = post.getCharCount();
             
-            // Write data rows
-            for (Post post : posts) {
-                String cleanContent = post.getContent().replaceAll("<[^>]*>", "").trim();
-                int wordCount = cleanContent.isEmpty() ? 0 : cleanContent.split("\\s+").length;
-                int charCount = cleanContent.length();
-                
-                String[] row = {
-                    post.getId().toString(),
-                    post.getTitle(),
-                    post.getSummary() != null ? post.getSummary() : "",
-                    post.getTags() != null ? post.getTags() : "",
-                    post.getIsPublished() ? "Yes" : "No",
-                    post.getCreatedAt().format(formatter),
-                    post.getUpdatedAt().format(formatter),
-                    String.valueOf(wordCount),
-                    String.valueOf(charCount)
-                };
-                csvWriter.writeNext(row);
-            }
+            String[] row = {
+                post.getId().toString(),
+                post.getTitle(),
+                post.getSummary() != null ? post.getSummary() : "",
+                post.getTags() != null ? post.getTags() : "",
+                post.getIsPublished() ? "Yes" : "No",
+                post.getCreatedAt().format(formatter),
+                post.getUpdatedAt().format(formatter),
+                String.valueOf(wordCount),
+                String.valueOf(charCount)
+            };
+            csvWriter.writeNext(row);
+            afterRow.accept(post);
         }
         
-        return stringWriter.toString();
+        csvWriter.flush();
+        if (csvWriter.checkError()) {
+            throw new IOException("Failed to write CSV export");
+        }
     }
     
     public byte[] exportPostToWord(Long postId) throws IOException {
         Post post = postService.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post not found"));
         
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportMetrics.record(ExportFormat.WORD, outputStream, out -> writeWord(post, post.getAuthor().getFullName(), out));
+        return outputStream.toByteArray();
+    }
+    
+    // Reads only the post's own columns, so it can run off the request thread
+    void writeWord(Post post, String authorName, OutputStream outputStream) throws IOException {
         try (XWPFDocument document = new XWPFDocument()) {
             // Title
             XWPFParagraph titleParagraph = document.createParagraph();
@@ -130,7 +249,7 @@ public class ExportService {
             XWPFParagraph metaParagraph = document.createParagraph();
             XWPFRun metaRun = metaParagraph.createRun();
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM dd, yyyy");
-            metaRun.setText("By " + post.getAuthor().getFullName() + 
+            metaRun.setText("By " + authorName + 
                            " | " + post.getCreatedAt().format(formatter));
             metaRun.setItalic(true);
             
@@ -146,11 +265,18 @@ public class ExportService {
                 document.createParagraph(); // Add spacing
             }
             
-            // Content (strip HTML tags for Word export)
+            // Content (strip HTML tags for Word export), one line per block element
             XWPFParagraph contentParagraph = document.createParagraph();
             XWPFRun contentRun = contentParagraph.createRun();
-            String cleanContent = post.getContent().replaceAll("<[^>]*>", "");
-            contentRun.setText(cleanContent);
+            boolean firstLine = true;
+            for (String line : stripHtml(post.getContent()).split("\n")) {
+                if (line.isBlank()) continue;
+                if (!firstLine) {
+                    contentRun.addBreak();
+                }
+                contentRun.setText(line.strip());
+                firstLine = false;
+            }
             
             // Tags
             if (post.getTags() != null && !post.getTags().isEmpty()) {
@@ -161,17 +287,73 @@ public class ExportService {
                 tagsRun.setItalic(true);
             }
             
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             document.write(outputStream);
-            return outputStream.toByteArray();
         }
     }
 
-    public byte[] exportPostsToPdf(User author) throws IOException {
-        List<Post> posts = postService.getUserPosts(author);
-        StringBuilder html = new StringBuilder();
+    public void exportPostsToPdf(User author, OutputStream outputStream) throws IOException {
+        exportPostsToPdf(author, outputStream, ExportProgress.NONE);
+    }
+    
+    public void exportPostsToPdf(User author, OutputStream outputStream, ExportProgress progress) throws IOException {
+        exportMetrics.record(ExportFormat.PDF, outputStream, out -> {
+            // Dated by the posts rather than the clock, so an unchanged collection renders identically
+            LocalDateTime lastUpdated = postService.getUserPostsVersion(author).getMaxUpdatedAt();
+            try (Stream<Post> posts = postService.streamUserPosts(author)) {
+                writePdf(author.getFullName(), lastUpdated != null ? lastUpdated : author.getUpdatedAt(), posts.iterator(),
+                        out, pdfChunkSize, exportRenderPool.getPool(), exported(progress));
+            }
+        });
+    }
+    
+    // Posts are rendered pdfChunkSize at a time into separate segments and merged at the end,
+    // so the HTML and layout tree for the whole collection are never in memory together.
+    // HTML is built here from the cursor; conversion runs on renderPool (inline when null).
+    void writePdf(String authorName, LocalDateTime lastUpdated, Iterator<Post> iterator, OutputStream outputStream,
+                  int chunkSize, ForkJoinPool renderPool, Consumer<Post> afterRow) throws IOException {
+        int postsPerChunk = Math.max(1, chunkSize);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM dd, yyyy");
         
-        // Enhanced HTML structure with better styling
+        try (ChunkedPdfWriter writer = new ChunkedPdfWriter(renderPool, lastUpdated)) {
+            StringBuilder html = startPdfChunk(new StringBuilder());
+            html.append("<h1>Blog Posts Collection - ").append(escapeHtml(authorName)).append("</h1>");
+            html.append("<p class='meta'>Last updated: ").append(lastUpdated.format(DateTimeFormatter.ofPattern("MMMM dd, yyyy 'at' HH:mm"))).append("</p>");
+            
+            int postsInChunk = 0;
+            while (iterator.hasNext()) {
+                Post post = iterator.next();
+                html.append("<div class='post'>");
+                html.append("<h2>").append(escapeHtml(post.getTitle())).append("</h2>");
+                html.append("<p class='meta'><strong>By:</strong> ").append(escapeHtml(post.getAuthor().getFullName()))
+                    .append(" | <strong>Created:</strong> ").append(post.getCreatedAt().format(formatter))
+                    .append(" | <strong>Status:</strong> ").append(post.getIsPublished() ? "Published" : "Draft").append("</p>");
+            
+                if (post.getSummary() != null && !post.getSummary().trim().isEmpty()) {
+                    html.append("<div class='summary'><strong>Summary:</strong> ").append(escapeHtml(post.getSummary())).append("</div>");
+                }
+            
+                html.append("<div class='content'>").append(post.getContent()).append("</div>");
+            
+                if (post.getTags() != null && !post.getTags().trim().isEmpty()) {
+                    html.append("<div class='tags'><strong>Tags:</strong> ").append(escapeHtml(post.getTags())).append("</div>");
+                }
+                html.append("</div><hr>");
+                
+                afterRow.accept(post);
+                
+                if (++postsInChunk == postsPerChunk && iterator.hasNext()) {
+                    writer.addChunk(html.append("</body></html>").toString());
+                    html = startPdfChunk(new StringBuilder(html.length()));
+                    postsInChunk = 0;
+                }
+            }
+            writer.addChunk(html.append("</body></html>").toString());
+            writer.writeTo(outputStream);
+        }
+    }
+    
+    // Every chunk is a complete document with the same stylesheet
+    private static StringBuilder startPdfChunk(StringBuilder html) {
         html.append("<!DOCTYPE html><html><head><style>");
         html.append("body { font-family: 'Arial', sans-serif; margin: 40px; line-height: 1.6; color: #333; }");
         html.append("h1 { color: #2c3e50; border-bottom: 3px solid #3498db; padding-bottom: 10px; }");
@@ -182,42 +364,21 @@ public class ExportService {
         html.append(".summary { background: #f8f9fa; padding: 15px; border-left: 4px solid #3498db; margin: 15px 0; font-style: italic; }");
         html.append("hr { border: none; height: 2px; background: #bdc3c7; margin: 30px 0; }");
         html.append("</style></head><body>");
-        
-        html.append("<h1>Blog Posts Collection - ").append(author.getFullName()).append("</h1>");
-        html.append("<p class='meta'>Generated on: ").append(java.time.LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMMM dd, yyyy 'at' HH:mm"))).append("</p>");
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM dd, yyyy");
-        for (Post post : posts) {
-            html.append("<div class='post'>");
-            html.append("<h2>").append(escapeHtml(post.getTitle())).append("</h2>");
-            html.append("<p class='meta'><strong>By:</strong> ").append(escapeHtml(post.getAuthor().getFullName()))
-                .append(" | <strong>Created:</strong> ").append(post.getCreatedAt().format(formatter))
-                .append(" | <strong>Status:</strong> ").append(post.getIsPublished() ? "Published" : "Draft").append("</p>");
-            
-            if (post.getSummary() != null && !post.getSummary().trim().isEmpty()) {
-                html.append("<div class='summary'><strong>Summary:</strong> ").append(escapeHtml(post.getSummary())).append("</div>");
-            }
-            
-            html.append("<div class='content'>").append(post.getContent()).append("</div>");
-            
-            if (post.getTags() != null && !post.getTags().trim().isEmpty()) {
-                html.append("<div class='tags'><strong>Tags:</strong> ").append(escapeHtml(post.getTags())).append("</div>");
-            }
-            html.append("</div><hr>");
-        }
-
-        html.append("</body></html>");
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ConverterProperties properties = new ConverterProperties();
-        HtmlConverter.convertToPdf(html.toString(), baos, properties);
-        return baos.toByteArray();
+        return html;
     }
 
     public byte[] exportPostToPdf(Long postId) throws IOException {
         Post post = postService.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post not found"));
 
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ConverterProperties properties = new ConverterProperties();
+        exportMetrics.record(ExportFormat.PDF, baos,
+                out -> HtmlConverter.convertToPdf(postPdfHtml(post, post.getAuthor().getFullName()), out, properties));
+        return baos.toByteArray();
+    }
+    
+    private static String postPdfHtml(Post post, String authorName) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM dd, yyyy");
 
         StringBuilder html = new StringBuilder();
@@ -230,7 +391,7 @@ public class ExportService {
         html.append("</style></head><body>");
         
         html.append("<h1>").append(escapeHtml(post.getTitle())).append("</h1>");
-        html.append("<p class='meta'><strong>By:</strong> ").append(escapeHtml(post.getAuthor().getFullName()))
+        html.append("<p class='meta'><strong>By:</strong> ").append(escapeHtml(authorName))
             .append(" | <strong>Date:</strong> ").append(post.getCreatedAt().format(formatter)).append("</p>");
         
         if (post.getSummary() != null && !post.getSummary().trim().isEmpty()) {
@@ -243,15 +404,126 @@ public class ExportService {
             html.append("<div class='tags'><strong>Tags:</strong> ").append(escapeHtml(post.getTags())).append("</div>");
         }
         html.append("</body></html>");
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ConverterProperties properties = new ConverterProperties();
-        HtmlConverter.convertToPdf(html.toString(), baos, properties);
-        return baos.toByteArray();
+        return html.toString();
+    }
+    
+    public void exportPostsToZip(User author, Set<ExportFormat> formats, OutputStream outputStream) throws IOException {
+        exportPostsToZip(author, formats, outputStream, ExportProgress.NONE);
+    }
+    
+    public void exportPostsToZip(User author, Set<ExportFormat> formats, OutputStream outputStream, ExportProgress progress) throws IOException {
+        if (formats.isEmpty() || !ZIP_DOCUMENT_FORMATS.containsAll(formats)) {
+            throw new IllegalArgumentException("ZIP export can only contain Word and PDF files");
+        }
+        exportMetrics.record(ExportFormat.ZIP, outputStream, out -> {
+            try (Stream<Post> posts = postService.streamUserPosts(author)) {
+                writeZip(posts.iterator(), formats, out, exportRenderPool.getPool(), exported(progress));
+            }
+        });
+    }
+    
+    // One file per post and format, generated on renderPool and added to the archive in cursor
+    // order. At most two documents per pool thread are pending, so memory stays at a handful
+    // of documents however many posts there are. The stream is finished but not closed.
+    void writeZip(Iterator<Post> iterator, Set<ExportFormat> formats, OutputStream outputStream,
+                  ForkJoinPool renderPool, Consumer<Post> afterRow) throws IOException {
+        int window = Math.max(1, renderPool.getParallelism() * 2);
+        Deque<PendingDocument> pending = new ArrayDeque<>();
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        // DOCX and PDF are compressed already
+        zip.setLevel(Deflater.BEST_SPEED);
+        
+        try {
+            while (iterator.hasNext()) {
+                Post post = iterator.next();
+                String authorName = post.getAuthor().getFullName();
+                for (ExportFormat format : formats) {
+                    String entryName = "post_" + post.getId() + "." + format.getExtension();
+                    pending.add(new PendingDocument(entryName, renderDocument(post, authorName, format, renderPool)));
+                }
+                afterRow.accept(post);
+                
+                while (pending.size() >= window) {
+                    writeEntry(zip, pending.poll());
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeEntry(zip, pending.poll());
+            }
+            zip.finish();
+        } finally {
+            for (PendingDocument document : pending) {
+                document.content.cancel(false);
+            }
+        }
+    }
+    
+    private CompletableFuture<byte[]> renderDocument(Post post, String authorName, ExportFormat format, ForkJoinPool renderPool) {
+        ExportCache.ArtifactWriter writer = switch (format) {
+            case WORD -> out -> writeWord(post, authorName, out);
+            case PDF -> {
+                // Built here so the worker never touches the entity's associations
+                String html = postPdfHtml(post, authorName);
+                yield out -> HtmlConverter.convertToPdf(html, out, new ConverterProperties());
+            }
+            default -> throw new IllegalArgumentException(format + " export is not available for a single post");
+        };
+        return CompletableFuture.supplyAsync(() -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                writer.write(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }, renderPool);
+    }
+    
+    private static void writeEntry(ZipOutputStream zip, PendingDocument document) throws IOException {
+        byte[] content;
+        try {
+            content = document.content.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            throw e;
+        }
+        zip.putNextEntry(new ZipEntry(document.entryName));
+        zip.write(content);
+        zip.closeEntry();
+    }
+    
+    private static final class PendingDocument {
+        final String entryName;
+        final CompletableFuture<byte[]> content;
+        
+        PendingDocument(String entryName, CompletableFuture<byte[]> content) {
+            this.entryName = entryName;
+            this.content = content;
+        }
+    }
+    
+    // Stats are stored at write time; rows not yet backfilled are computed in memory only
+    // (exports run read-only, so nothing is flushed back)
+    private void ensureContentStats(Post post) {
+        if (post.getWordCount() == null || post.getCharCount() == null) {
+            post.refreshContentStats();
+        }
+    }
+    
+    // Detaches each written post so the persistence context stays small, then reports progress
+    private Consumer<Post> exported(ExportProgress progress) {
+        return post -> {
+            entityManager.detach(post);
+            progress.postExported();
+        };
+    }
+    
+    static String stripHtml(String html) {
+        return HtmlText.toPlainText(html);
     }
     
     // Helper method to escape HTML characters
-    private String escapeHtml(String text) {
+    static String escapeHtml(String text) {
         if (text == null) return "";
         return text.replace("&", "&amp;")
                   .replace("<", "&lt;")
@@ -0,0 +1,142 @@
+package com.blog.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the deliberately slow password encoder on its own small pool so that a login burst
+ * queues here, bounded, instead of occupying every request thread. When the queue is full
+ * callers get a {@link ServiceBusyException} straight away.
+ */
+@Service
+public class PasswordHashingService {
+    
+    private static final String BUSY_MESSAGE = "Too many sign-in requests right now. Please try again in a moment.";
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    // 0 means one thread per available core
+    @Value("${blog.security.hashing.threads:0}")
+    private int threads;
+    
+    @Value("${blog.security.hashing.queue-capacity:64}")
+    private int queueCapacity;
+    
+    @Value("${blog.security.hashing.timeout-ms:5000}")
+    private long timeoutMillis;
+    
+    private ThreadPoolExecutor executor;
+    private final AtomicLong hashes = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong totalHashNanos = new AtomicLong();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+    
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+    
+    // Only inspects the hash prefix, so it runs on the caller's thread
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+    
+    private <T> T run(Callable<T> hashing) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                totalWaitNanos.addAndGet(start - submitted);
+                try {
+                    return hashing.call();
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    hashes.incrementAndGet();
+                    totalHashNanos.addAndGet(elapsed);
+                    maxHashNanos.accumulateAndGet(elapsed, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejections.incrementAndGet();
+            throw new ServiceBusyException(BUSY_MESSAGE);
+        }
+        
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.incrementAndGet();
+            throw new ServiceBusyException(BUSY_MESSAGE);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException(BUSY_MESSAGE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+    
+    public int getPoolSize() { return executor.getMaximumPoolSize(); }
+    public int getActiveCount() { return executor.getActiveCount(); }
+    public int getQueueDepth() { return executor.getQueue().size(); }
+    public int getQueueCapacity() { return queueCapacity; }
+    public long getHashCount() { return hashes.get(); }
+    public long getRejectionCount() { return rejections.get(); }
+    
+    public double getAverageHashMillis() {
+        long count = hashes.get();
+        return count == 0 ? 0.0 : totalHashNanos.get() / 1_000_000.0 / count;
+    }
+    
+    public double getMaxHashMillis() {
+        return maxHashNanos.get() / 1_000_000.0;
+    }
+    
+    public double getAverageWaitMillis() {
+        long count = hashes.get();
+        return count == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / count;
+    }
+}
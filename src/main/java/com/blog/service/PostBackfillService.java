@@ -0,0 +1,91 @@
+package com.blog.service;
+
+import com.blog.model.Post;
+import com.blog.model.Tag;
+import com.blog.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills in data derived from posts (content statistics, tag links) for rows written
+ * before that data was persisted, and recomputes content statistics left by an older
+ * version of the derivation.
+ */
+@Component
+public class PostBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostBackfillService.class);
+    private static final int BATCH_SIZE = 200;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillContentStats() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int updated = 0;
+        int batchSize;
+        do {
+            // Each batch commits on its own so a large table never sits in one transaction
+            Integer count = transaction.execute(status -> {
+                List<Post> posts = postRepository.findWithStaleContentStats(
+                        Post.CONTENT_STATS_VERSION, PageRequest.of(0, BATCH_SIZE));
+                for (Post post : posts) {
+                    post.refreshContentStats();
+                    postRepository.updateContentStats(post.getId(), post.getWordCount(),
+                            post.getCharCount(), post.getExcerpt(), post.getContentStatsVersion());
+                }
+                return posts.size();
+            });
+            batchSize = count != null ? count : 0;
+            updated += batchSize;
+        } while (batchSize == BATCH_SIZE);
+
+        if (updated > 0) {
+            logger.info("Backfilled content statistics for {} posts", updated);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillTagLinks() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long lastId = 0L;
+        int linked = 0;
+        while (true) {
+            long afterId = lastId;
+            List<Post> posts = transaction.execute(status -> {
+                List<Post> batch = postRepository.findUnlinkedTaggedPosts(afterId, PageRequest.of(0, BATCH_SIZE));
+                for (Post post : batch) {
+                    for (Tag tag : tagService.resolveTags(post.getTags())) {
+                        postRepository.insertTagLink(post.getId(), tag.getId());
+                    }
+                }
+                return batch;
+            });
+            if (posts == null || posts.isEmpty()) break;
+            linked += posts.size();
+            lastId = posts.get(posts.size() - 1).getId();
+        }
+
+        // Counts are maintained incrementally; a full recount at startup repairs any drift
+        transaction.executeWithoutResult(status -> tagService.recountPublishedPosts());
+        if (linked > 0) {
+            logger.info("Linked tags for {} posts", linked);
+        }
+    }
+}
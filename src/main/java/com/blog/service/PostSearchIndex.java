@@ -0,0 +1,330 @@
+package com.blog.service;
+
+import com.blog.model.Post;
+import com.blog.repository.PostRepository;
+import com.blog.util.HtmlText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over post title, tags and content, ranked with BM25.
+ * Built from the database on a background thread once the application is ready, and kept
+ * current by {@link PostService}, which searches the database until {@link #isBuilt()}.
+ */
+@Component
+public class PostSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    // term -> (post id -> weighted term frequency)
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, IndexedPost> documents = new HashMap<>();
+    private long totalLength;
+    // Posts written while a rebuild is running; the rebuild leaves them to the writes, whose
+    // copy is newer than the batch it read. Null when no rebuild is running. Guarded by lock.
+    private Set<Long> writtenDuringRebuild;
+    private volatile boolean built;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Off the startup path: until the build finishes searches go to the database
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread.ofPlatform().daemon().name("search-index-rebuild").start(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                logger.error("Could not build the search index; search stays on the database", e);
+            }
+        });
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            writtenDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long lastId = 0L;
+        int indexed = 0;
+        try {
+            List<Post> batch;
+            do {
+                batch = postRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Post post : batch) {
+                    index(post, true);
+                    lastId = post.getId();
+                }
+                indexed += batch.size();
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            built = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                writtenDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Search index rebuilt with {} posts in {} ms", indexed, System.currentTimeMillis() - start);
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public void index(Post post) {
+        index(post, false);
+    }
+
+    private void index(Post post, boolean fromRebuild) {
+        Map<String, Integer> terms = new HashMap<>();
+        int length = 0;
+        length += addTerms(terms, post.getTitle(), TITLE_WEIGHT);
+        length += addTerms(terms, post.getTags(), TAG_WEIGHT);
+        length += addTerms(terms, HtmlText.toPlainText(post.getContent()), 1);
+
+        IndexedPost document = new IndexedPost(post.getAuthor().getId(),
+                Boolean.TRUE.equals(post.getIsPublished()), post.getCreatedAt(), terms, length);
+
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringRebuild != null) {
+                if (fromRebuild && writtenDuringRebuild.contains(post.getId())) {
+                    return;
+                }
+                if (!fromRebuild) {
+                    writtenDuringRebuild.add(post.getId());
+                }
+            }
+            removeInternal(post.getId());
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(post.getId(), term.getValue());
+            }
+            documents.put(post.getId(), document);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringRebuild != null) {
+                writtenDuringRebuild.add(postId);
+            }
+            removeInternal(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Index changes only become visible once the surrounding transaction commits
+    public void indexAfterCommit(Post post) {
+        AfterCommit.run(() -> index(post));
+    }
+
+    public void removeAfterCommit(Long postId) {
+        AfterCommit.run(() -> remove(postId));
+    }
+
+    /**
+     * Returns the ids of the best {@code limit} matches in relevance order together with the
+     * total number of matching posts. Every query term must be present in a post for it to match.
+     */
+    public SearchResult search(String query, Long authorId, boolean publishedOnly, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return SearchResult.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> termPostings = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    return SearchResult.EMPTY;
+                }
+                termPostings.add(posting);
+            }
+            // Drive the intersection from the rarest term
+            termPostings.sort(Comparator.comparingInt(Map::size));
+
+            int documentCount = documents.size();
+            double averageLength = documentCount == 0 ? 1.0 : Math.max(1.0, (double) totalLength / documentCount);
+            double[] idf = new double[termPostings.size()];
+            for (int i = 0; i < idf.length; i++) {
+                int df = termPostings.get(i).size();
+                idf[i] = Math.log(1.0 + (documentCount - df + 0.5) / (df + 0.5));
+            }
+
+            PriorityQueue<ScoredPost> top = new PriorityQueue<>(limit + 1, ScoredPost.ORDER);
+            int totalHits = 0;
+            candidates:
+            for (Long postId : termPostings.get(0).keySet()) {
+                IndexedPost document = documents.get(postId);
+                if (publishedOnly && !document.published) continue;
+                if (authorId != null && !authorId.equals(document.authorId)) continue;
+
+                double score = 0;
+                double norm = K1 * (1 - B + B * document.length / averageLength);
+                for (int i = 0; i < termPostings.size(); i++) {
+                    Integer tf = termPostings.get(i).get(postId);
+                    if (tf == null) continue candidates;
+                    score += idf[i] * (tf * (K1 + 1)) / (tf + norm);
+                }
+
+                totalHits++;
+                top.offer(new ScoredPost(postId, score, document.createdAt));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<Long> ids = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ids.add(top.poll().postId);
+            }
+            Collections.reverse(ids);
+            return new SearchResult(ids, totalHits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long postId) {
+        IndexedPost existing = documents.remove(postId);
+        if (existing == null) return;
+        for (String term : existing.terms.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(postId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= existing.length;
+    }
+
+    private int addTerms(Map<String, Integer> terms, String text, int weight) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            terms.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    // Lower-cased letter/digit runs of plain text; post content goes through HtmlText first
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else {
+                flushToken(current, tokens);
+            }
+        }
+        flushToken(current, tokens);
+        return tokens;
+    }
+
+    private static void flushToken(StringBuilder current, List<String> tokens) {
+        if (current.length() >= 2) {
+            tokens.add(current.toString());
+        }
+        current.setLength(0);
+    }
+
+    public static final class SearchResult {
+        static final SearchResult EMPTY = new SearchResult(List.of(), 0);
+
+        private final List<Long> postIds;
+        private final int totalHits;
+
+        SearchResult(List<Long> postIds, int totalHits) {
+            this.postIds = postIds;
+            this.totalHits = totalHits;
+        }
+
+        public List<Long> getPostIds() { return postIds; }
+        public int getTotalHits() { return totalHits; }
+    }
+
+    private static final class IndexedPost {
+        final Long authorId;
+        final boolean published;
+        final LocalDateTime createdAt;
+        final Map<String, Integer> terms;
+        final int length;
+
+        IndexedPost(Long authorId, boolean published, LocalDateTime createdAt, Map<String, Integer> terms, int length) {
+            this.authorId = authorId;
+            this.published = published;
+            this.createdAt = createdAt;
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    private static final class ScoredPost {
+        // Worst match first so the heap can evict it; ties go to the newer post
+        static final Comparator<ScoredPost> ORDER = Comparator
+                .comparingDouble((ScoredPost s) -> s.score)
+                .thenComparing(s -> s.createdAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(s -> s.postId);
+
+        final Long postId;
+        final double score;
+        final LocalDateTime createdAt;
+
+        ScoredPost(Long postId, double score, LocalDateTime createdAt) {
+            this.postId = postId;
+            this.score = score;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.blog.service;
 
+import com.blog.cache.BoundedCache;
+import com.blog.dto.PostCardDto;
+import com.blog.dto.PostCardSlice;
+import com.blog.dto.PostCursor;
 import com.blog.dto.PostDto;
+import com.blog.dto.PostSetVersion;
+import com.blog.dto.PostVersion;
 import com.blog.model.Post;
+import com.blog.model.Tag;
 import com.blog.model.User;
 import com.blog.repository.PostRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -13,28 +21,56 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class PostService {
     
+    private static final int[] FEED_PAGE_SIZES = { 10, 20, 50 };
+    
     @Autowired
     private PostRepository postRepository;
     
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+    
+    @Autowired
+    private TagService tagService;
+    
+    @Autowired
+    private BoundedCache<Long, Post> postCache;
+    
+    @Autowired
+    private BoundedCache<Integer, PostCardSlice> feedCache;
+    
+    @Autowired
+    private BoundedCache<Long, PostSetVersion> postSetVersionCache;
+    
     public Post createPost(PostDto postDto, User author) {
         Post post = new Post();
         post.setTitle(postDto.getTitle());
         post.setContent(postDto.getContent());
+        post.refreshContentStats();
         post.setSummary(postDto.getSummary());
         post.setTags(postDto.getTags());
         post.setIsPublished(postDto.getIsPublished());
         post.setAuthor(author);
         post.setCreatedAt(LocalDateTime.now());
         post.setUpdatedAt(LocalDateTime.now());
+        tagService.syncTags(post, false);
         
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        postSearchIndex.indexAfterCommit(saved);
+        evictAfterWrite(null, author.getId(), Boolean.TRUE.equals(saved.getIsPublished()));
+        return saved;
     }
     
     public Post updatePost(Long id, PostDto postDto, User author) {
@@ -50,14 +86,20 @@ public class PostService {
             throw new IllegalArgumentException("You can only edit your own posts");
         }
         
+        boolean wasPublished = Boolean.TRUE.equals(post.getIsPublished());
         post.setTitle(postDto.getTitle());
         post.setContent(postDto.getContent());
+        post.refreshContentStats();
         post.setSummary(postDto.getSummary());
         post.setTags(postDto.getTags());
         post.setIsPublished(postDto.getIsPublished());
         post.setUpdatedAt(LocalDateTime.now());
+        tagService.syncTags(post, wasPublished);
         
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        postSearchIndex.indexAfterCommit(saved);
+        evictAfterWrite(id, author.getId(), wasPublished || Boolean.TRUE.equals(saved.getIsPublished()));
+        return saved;
     }
     
     public void publishPost(Long id, User author) {
@@ -73,9 +115,12 @@ public class PostService {
             throw new IllegalArgumentException("You can only publish your own posts");
         }
         
+        boolean wasPublished = Boolean.TRUE.equals(post.getIsPublished());
         post.setIsPublished(true);
         post.setUpdatedAt(LocalDateTime.now());
-        postRepository.save(post);
+        tagService.syncTags(post, wasPublished);
+        postSearchIndex.indexAfterCommit(postRepository.save(post));
+        evictAfterWrite(id, author.getId(), true);
     }
     
     public void deletePost(Long id, User author) {
@@ -91,41 +136,197 @@ public class PostService {
             throw new IllegalArgumentException("You can only delete your own posts");
         }
         
+        tagService.releaseTags(post);
         postRepository.delete(post);
+        postSearchIndex.removeAfterCommit(id);
+        evictAfterWrite(id, author.getId(), Boolean.TRUE.equals(post.getIsPublished()));
     }
     
+    // Served from the post cache; the author is fetched with the post on a miss. Callers get
+    // their own copy, as the cached instance is shared between requests
     public Optional<Post> findById(Long id) {
-        return postRepository.findById(id);
+        return Optional.ofNullable(postCache.get(id, key -> postRepository.findWithAuthorById(key).orElse(null)))
+                .map(Post::copy);
     }
     
-    public Page<Post> getAllPublishedPosts(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return postRepository.findByIsPublishedTrue(pageable);
+    // Evict now so this transaction reads fresh rows, and again after commit so a
+    // concurrent reader cannot re-cache the pre-commit state
+    private void evictAfterWrite(Long postId, Long authorId, boolean feedChanged) {
+        Runnable evict = () -> {
+            if (postId != null) {
+                postCache.invalidate(postId);
+            }
+            postSetVersionCache.invalidate(authorId);
+            if (feedChanged) {
+                feedCache.invalidateAll();
+            }
+        };
+        evict.run();
+        AfterCommit.run(evict);
     }
     
-    public Page<Post> getUserPosts(User author, int page, int size) {
+    public Page<PostCardDto> getAllPublishedPosts(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return postRepository.findByAuthor(author, pageable);
+        return postRepository.findPublishedCards(pageable);
     }
     
-    public Page<Post> searchPublishedPosts(String keyword, int page, int size) {
+    public Page<PostCardDto> getUserPosts(User author, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return postRepository.searchPublishedPosts(keyword, pageable);
+        return postRepository.findCardsByAuthor(author, pageable);
+    }
+    
+    // Keyset pagination: cost is independent of depth and no COUNT query is issued.
+    // Pass "after" to move to older posts, "before" to move back to newer ones.
+    public PostCardSlice getUserPosts(User author, String after, String before, int size) {
+        return loadKeysetSlice(after, before, size,
+                (cursor, pageable) -> postRepository.findCardsByAuthorOlderThan(author, cursor.getCreatedAt(), cursor.getId(), pageable),
+                (cursor, pageable) -> postRepository.findCardsByAuthorNewerThan(author, cursor.getCreatedAt(), cursor.getId(), pageable));
+    }
+    
+    public PostCardSlice getAllPublishedPosts(String after, String before, int requestedSize) {
+        int size = feedPageSize(requestedSize);
+        boolean firstPage = (after == null || after.isEmpty()) && (before == null || before.isEmpty());
+        if (firstPage) {
+            return feedCache.get(size, key -> loadPublishedSlice(null, null, key));
+        }
+        return loadPublishedSlice(after, before, size);
+    }
+    
+    // The page size comes from the query string and keys the feed cache, so it is rounded
+    // up to one of a few fixed sizes
+    static int feedPageSize(int requested) {
+        for (int size : FEED_PAGE_SIZES) {
+            if (requested <= size) {
+                return size;
+            }
+        }
+        return FEED_PAGE_SIZES[FEED_PAGE_SIZES.length - 1];
     }
     
-    public Page<Post> searchUserPosts(User author, String keyword, int page, int size) {
+    private PostCardSlice loadPublishedSlice(String after, String before, int size) {
+        return loadKeysetSlice(after, before, size,
+                (cursor, pageable) -> postRepository.findPublishedCardsOlderThan(cursor.getCreatedAt(), cursor.getId(), pageable),
+                (cursor, pageable) -> postRepository.findPublishedCardsNewerThan(cursor.getCreatedAt(), cursor.getId(), pageable));
+    }
+    
+    private PostCardSlice loadKeysetSlice(String after, String before, int size,
+                                          BiFunction<PostCursor, Pageable, List<PostCardDto>> olderThan,
+                                          BiFunction<PostCursor, Pageable, List<PostCardDto>> newerThan) {
+        // Fetch one extra row to learn whether another page exists
+        Pageable limit = PageRequest.of(0, size + 1);
+        
+        if (before != null && !before.isEmpty()) {
+            List<PostCardDto> rows = new ArrayList<>(newerThan.apply(PostCursor.decode(before), limit));
+            if (!rows.isEmpty()) {
+                boolean hasNewer = rows.size() > size;
+                if (hasNewer) {
+                    rows = rows.subList(0, size);
+                }
+                Collections.reverse(rows);
+                return new PostCardSlice(rows,
+                        PostCursor.of(rows.get(rows.size() - 1)).encode(),
+                        hasNewer ? PostCursor.of(rows.get(0)).encode() : null);
+            }
+            // Everything newer has gone; fall back to the first page
+            after = null;
+        }
+        
+        boolean fromStart = after == null || after.isEmpty();
+        PostCursor cursor = fromStart ? PostCursor.START : PostCursor.decode(after);
+        List<PostCardDto> rows = olderThan.apply(cursor, limit);
+        boolean hasOlder = rows.size() > size;
+        if (hasOlder) {
+            rows = rows.subList(0, size);
+        }
+        return new PostCardSlice(rows,
+                hasOlder ? PostCursor.of(rows.get(rows.size() - 1)).encode() : null,
+                !fromStart && !rows.isEmpty() ? PostCursor.of(rows.get(0)).encode() : null);
+    }
+    
+    // Search results come back in relevance order from the in-memory index. Until it is
+    // built the database is searched instead, newest first
+    public Page<PostCardDto> searchPublishedPosts(String keyword, int page, int size) {
+        if (!postSearchIndex.isBuilt()) {
+            return postRepository.searchPublishedCards(likePattern(keyword),
+                    PageRequest.of(page, size, Sort.by("createdAt").descending()));
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        return loadSearchPage(postSearchIndex.search(keyword, null, true, (page + 1) * size), pageable);
+    }
+    
+    public Page<PostCardDto> searchUserPosts(User author, String keyword, int page, int size) {
+        if (!postSearchIndex.isBuilt()) {
+            return postRepository.searchCardsByAuthor(author, likePattern(keyword),
+                    PageRequest.of(page, size, Sort.by("createdAt").descending()));
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        return loadSearchPage(postSearchIndex.search(keyword, author.getId(), false, (page + 1) * size), pageable);
+    }
+    
+    private static String likePattern(String keyword) {
+        String escaped = keyword.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+    
+    private Page<PostCardDto> loadSearchPage(PostSearchIndex.SearchResult result, Pageable pageable) {
+        List<Long> rankedIds = result.getPostIds();
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, Math.min(from + pageable.getPageSize(), rankedIds.size()));
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(new ArrayList<>(), pageable, result.getTotalHits());
+        }
+        
+        Map<Long, PostCardDto> cardsById = new HashMap<>();
+        for (PostCardDto card : postRepository.findCardsByIdIn(pageIds)) {
+            cardsById.put(card.getId(), card);
+        }
+        List<PostCardDto> cards = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            PostCardDto card = cardsById.get(id);
+            if (card != null) {
+                cards.add(card);
+            }
+        }
+        return new PageImpl<>(cards, pageable, result.getTotalHits());
+    }
+    
+    public Page<PostCardDto> getPublishedPostsByTag(String tag, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return postRepository.searchUserPosts(author, keyword, pageable);
+        return postRepository.findPublishedCardsByTagName(Tag.normalizeName(tag), pageable);
     }
     
     public List<String> getAllUniqueTags() {
-        return postRepository.findAllUniqueTags();
+        return tagService.getPopularTags(Integer.MAX_VALUE);
     }
     
     public List<Post> getUserPosts(User author) {
         return postRepository.findByAuthor(author);
     }
     
+    // Cheap version lookups used to key cached exports without loading post content
+    public Optional<PostVersion> findVersion(Long id) {
+        // Cached posts are evicted on every write, so their stamps are current
+        Post cached = postCache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(new PostVersion(cached.getId(), cached.getUpdatedAt(), cached.getAuthor().getUpdatedAt()));
+        }
+        return postRepository.findVersionById(id);
+    }
+    
+    // Cached per author and evicted on every write, like the post cache
+    public PostSetVersion getUserPostsVersion(User author) {
+        return postSetVersionCache.get(author.getId(), key -> postRepository.findVersionByAuthor(author));
+    }
+    
+    public long countUserPosts(User author) {
+        return getUserPostsVersion(author).getCount();
+    }
+    
+    @Transactional(readOnly = true)
+    public Stream<Post> streamUserPosts(User author) {
+        return postRepository.streamByAuthor(author);
+    }
+    
     // Convert Entity to DTO
     public PostDto convertToDto(Post post) {
         PostDto dto = new PostDto();
@@ -0,0 +1,274 @@
+package com.blog.service;
+
+import com.blog.model.Post;
+import com.blog.util.HtmlText;
+import com.blog.util.SyntheticContent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Fills an empty database with synthetic users, posts and tags for local performance work.
+ * Enabled with blog.seed.enabled=true; every row is written with batched JDBC inserts, one
+ * transaction per batch, and the same random seed always produces the same data set.
+ *
+ * Seeded users are named seed-user-1 .. seed-user-N and share blog.seed.password. Posts are
+ * spread unevenly across authors and tags are drawn from a skewed distribution, so a few
+ * users and tags are much busier than the rest, as they would be in production.
+ *
+ * Runs before the search index is built at startup, so it picks up the seeded rows. The
+ * availability filters may already be building on the scheduler, so they are rebuilt once
+ * the users are in.
+ */
+@Component
+@ConditionalOnProperty(name = "blog.seed.enabled", havingValue = "true")
+public class SeedDataGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeedDataGenerator.class);
+
+    private static final String INSERT_POST =
+            "INSERT INTO posts (title, content, summary, tags, is_published, word_count, char_count, excerpt, " +
+            "content_stats_version, author_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] FIRST_NAMES = { "Alex", "Sam", "Jordan", "Taylor", "Morgan", "Casey", "Riley", "Jamie" };
+    private static final String[] LAST_NAMES = { "Lee", "Patel", "Garcia", "Nguyen", "Smith", "Kim", "Silva", "Novak" };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private UserAvailabilityService userAvailabilityService;
+
+    @Value("${blog.seed.users:100}")
+    private int userCount;
+
+    @Value("${blog.seed.posts:5000}")
+    private int postCount;
+
+    @Value("${blog.seed.tags:200}")
+    private int tagCount;
+
+    @Value("${blog.seed.max-tags-per-post:5}")
+    private int maxTagsPerPost;
+
+    // Fraction of posts that are published; the rest are drafts
+    @Value("${blog.seed.publish-ratio:0.7}")
+    private double publishRatio;
+
+    // Post bodies are log-uniform between these sizes, so most are short and a few are long
+    @Value("${blog.seed.content-min-kb:1}")
+    private int contentMinKb;
+
+    @Value("${blog.seed.content-max-kb:40}")
+    private int contentMaxKb;
+
+    // Higher values concentrate more posts on the first authors and more links on the first tags
+    @Value("${blog.seed.author-skew:2.0}")
+    private double authorSkew;
+
+    @Value("${blog.seed.tag-skew:3.0}")
+    private double tagSkew;
+
+    @Value("${blog.seed.history-days:365}")
+    private int historyDays;
+
+    @Value("${blog.seed.batch-size:500}")
+    private int batchSize;
+
+    @Value("${blog.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${blog.seed.password:loadtest}")
+    private String password;
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void seed() {
+        Long existingUsers = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existingUsers != null && existingUsers > 0) {
+            logger.info("Skipping seed data: the database already has {} users", existingUsers);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Long> userIds = insertUsers(transaction, now.minusDays(historyDays));
+        if (userIds.isEmpty()) {
+            logger.warn("Skipping seed data: blog.seed.users must be at least 1");
+            return;
+        }
+        List<Long> tagIds = insertTags(transaction, now.minusDays(historyDays));
+        int links = insertPosts(transaction, random, userIds, tagIds, now);
+        tagService.recountPublishedPosts();
+        userAvailabilityService.rebuild();
+
+        logger.info("Seeded {} users, {} posts, {} tags and {} tag links in {} ms",
+                userIds.size(), postCount, tagIds.size(), links, System.currentTimeMillis() - start);
+    }
+
+    private List<Long> insertUsers(TransactionTemplate transaction, LocalDateTime createdAt) {
+        // One hash for everyone; hashing each user would dominate the seeding time
+        String passwordHash = passwordHashingService.encode(password);
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        for (int from = 0; from < userCount; from += batchSize) {
+            List<Object[]> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(from + batchSize, userCount); i++) {
+                String username = "seed-user-" + (i + 1);
+                batch.add(new Object[] { username, username + "@example.com", passwordHash,
+                        FIRST_NAMES[i % FIRST_NAMES.length], LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length],
+                        true, timestamp, timestamp });
+            }
+            transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO users (username, email, password, first_name, last_name, is_active, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch));
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+    }
+
+    private List<Long> insertTags(TransactionTemplate transaction, LocalDateTime createdAt) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        for (int from = 0; from < tagCount; from += batchSize) {
+            List<Object[]> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(from + batchSize, tagCount); i++) {
+                batch.add(new Object[] { SyntheticContent.tagName(i), 0, timestamp, timestamp });
+            }
+            transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO tags (name, published_post_count, created_at, updated_at) VALUES (?, ?, ?, ?)", batch));
+        }
+        // Ordered by id, so index i is the tag named SyntheticContent.tagName(i)
+        return jdbcTemplate.queryForList("SELECT id FROM tags ORDER BY id", Long.class);
+    }
+
+    private int insertPosts(TransactionTemplate transaction, SplittableRandom random,
+                            List<Long> userIds, List<Long> tagIds, LocalDateTime now) {
+        long historySeconds = Math.max(1, historyDays) * 86_400L;
+        int links = 0;
+        for (int from = 0; from < postCount; from += batchSize) {
+            int size = Math.min(batchSize, postCount - from);
+            List<Object[]> posts = new ArrayList<>(size);
+            List<Set<Integer>> postTags = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Set<Integer> tags = pickTags(random);
+                postTags.add(tags);
+                posts.add(postRow(random, userIds, tags, now.minusSeconds(random.nextLong(historySeconds))));
+            }
+
+            Integer linked = transaction.execute(status -> {
+                List<Long> postIds = insertPostBatch(posts);
+                List<Object[]> tagLinks = new ArrayList<>();
+                for (int i = 0; i < postIds.size(); i++) {
+                    for (Integer tag : postTags.get(i)) {
+                        tagLinks.add(new Object[] { postIds.get(i), tagIds.get(tag) });
+                    }
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO post_tags (post_id, tag_id) VALUES (?, ?)", tagLinks);
+                return tagLinks.size();
+            });
+            links += linked != null ? linked : 0;
+        }
+        return links;
+    }
+
+    // Inserts the rows in one batch and returns their generated ids, in row order
+    private List<Long> insertPostBatch(List<Object[]> posts) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_POST, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        new ArgumentPreparedStatementSetter(posts.get(i)).setValues(statement);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return posts.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != posts.size()) {
+            throw new IllegalStateException("Expected " + posts.size() + " generated post ids, got " + keys.size());
+        }
+        // One key per row; its column name differs between drivers
+        List<Long> ids = new ArrayList<>(keys.size());
+        for (Map<String, Object> key : keys) {
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    private Object[] postRow(SplittableRandom random, List<Long> userIds, Set<Integer> tags, LocalDateTime createdAt) {
+        String title = SyntheticContent.title(random);
+        String content = SyntheticContent.htmlWithLength(random, contentLength(random));
+        HtmlText.Stats stats = HtmlText.analyze(content, Post.EXCERPT_LENGTH);
+
+        List<String> tagNames = new ArrayList<>(tags.size());
+        for (Integer tag : tags) {
+            tagNames.add(SyntheticContent.tagName(tag));
+        }
+        LocalDateTime updatedAt = random.nextInt(4) == 0 ? createdAt.plusHours(1 + random.nextInt(72)) : createdAt;
+
+        return new Object[] {
+            title, content, SyntheticContent.summary(random), String.join(",", tagNames),
+            random.nextDouble() < publishRatio, stats.getWordCount(), stats.getCharCount(), stats.getExcerpt(),
+            Post.CONTENT_STATS_VERSION,
+            userIds.get(skewedIndex(random, userIds.size(), authorSkew)),
+            Timestamp.valueOf(createdAt), Timestamp.valueOf(updatedAt)
+        };
+    }
+
+    private Set<Integer> pickTags(SplittableRandom random) {
+        Set<Integer> tags = new LinkedHashSet<>();
+        if (tagCount == 0) return tags;
+        int wanted = random.nextInt(Math.max(1, maxTagsPerPost) + 1);
+        for (int attempt = 0; attempt < wanted * 3 && tags.size() < wanted; attempt++) {
+            tags.add(skewedIndex(random, tagCount, tagSkew));
+        }
+        return tags;
+    }
+
+    // Log-uniform between the configured sizes, so most posts are short and a few are long
+    private int contentLength(SplittableRandom random) {
+        double minBytes = Math.max(1, contentMinKb) * 1024.0;
+        double maxBytes = Math.max(contentMinKb, contentMaxKb) * 1024.0;
+        return (int) Math.round(minBytes * Math.pow(maxBytes / minBytes, random.nextDouble()));
+    }
+
+    // Power-law pick in [0, size): skew 1 is uniform, larger values favour low indexes
+    private static int skewedIndex(SplittableRandom random, int size, double skew) {
+        return Math.min(size - 1, (int) (size * Math.pow(random.nextDouble(), Math.max(1.0, skew))));
+    }
+}
@@ -0,0 +1,11 @@
+package com.blog.service;
+
+/**
+ * Thrown when a bounded worker pool has no capacity left; callers should answer 503 and let the client retry.
+ */
+public class ServiceBusyException extends RuntimeException {
+    
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,115 @@
+package com.blog.service;
+
+import com.blog.model.Post;
+import com.blog.model.Tag;
+import com.blog.repository.TagRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@Transactional
+public class TagService {
+    
+    @Autowired
+    private TagRepository tagRepository;
+    
+    /**
+     * Points the post's tag links at the tags in its current tag string and adjusts
+     * published-post counts by the difference. {@code wasPublished} is the post's
+     * published state before this write.
+     */
+    public void syncTags(Post post, boolean wasPublished) {
+        Set<Tag> previousTags = new HashSet<>(post.getTagSet());
+        Set<Tag> currentTags = resolveTags(post.getTags());
+        post.setTagSet(currentTags);
+        
+        Set<Long> decrement = new HashSet<>();
+        if (wasPublished) {
+            previousTags.forEach(tag -> decrement.add(tag.getId()));
+        }
+        Set<Long> increment = new HashSet<>();
+        if (Boolean.TRUE.equals(post.getIsPublished())) {
+            currentTags.forEach(tag -> increment.add(tag.getId()));
+        }
+        
+        Set<Long> unchanged = new HashSet<>(decrement);
+        unchanged.retainAll(increment);
+        decrement.removeAll(unchanged);
+        increment.removeAll(unchanged);
+        
+        if (!decrement.isEmpty()) {
+            tagRepository.adjustPublishedPostCount(decrement, -1);
+        }
+        if (!increment.isEmpty()) {
+            tagRepository.adjustPublishedPostCount(increment, 1);
+        }
+    }
+    
+    // Call before deleting a post so its tags stop counting it
+    public void releaseTags(Post post) {
+        if (Boolean.TRUE.equals(post.getIsPublished()) && !post.getTagSet().isEmpty()) {
+            Set<Long> ids = new HashSet<>();
+            post.getTagSet().forEach(tag -> ids.add(tag.getId()));
+            tagRepository.adjustPublishedPostCount(ids, -1);
+        }
+        post.getTagSet().clear();
+    }
+    
+    // Finds or creates the tags named in a comma-separated tag string
+    public Set<Tag> resolveTags(String tags) {
+        Set<String> names = parseTagNames(tags);
+        if (names.isEmpty()) {
+            return new HashSet<>();
+        }
+        
+        Map<String, Tag> existing = new HashMap<>();
+        for (Tag tag : tagRepository.findByNameIn(names)) {
+            existing.put(tag.getName(), tag);
+        }
+        
+        Set<Tag> resolved = new HashSet<>();
+        for (String name : names) {
+            Tag tag = existing.get(name);
+            if (tag == null) {
+                tag = tagRepository.save(new Tag(name));
+            }
+            resolved.add(tag);
+        }
+        return resolved;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<String> getPopularTags(int limit) {
+        List<String> names = new ArrayList<>();
+        for (Tag tag : tagRepository.findByPublishedPostCountGreaterThanOrderByPublishedPostCountDescNameAsc(0, PageRequest.of(0, limit))) {
+            names.add(tag.getName());
+        }
+        return names;
+    }
+    
+    public void recountPublishedPosts() {
+        tagRepository.recountPublishedPosts();
+    }
+    
+    public static Set<String> parseTagNames(String tags) {
+        Set<String> names = new LinkedHashSet<>();
+        if (tags == null) return names;
+        for (String raw : tags.split(",")) {
+            String name = Tag.normalizeName(raw);
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+}
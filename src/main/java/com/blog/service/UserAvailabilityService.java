@@ -0,0 +1,174 @@
+package com.blog.service;
+
+import com.blog.cache.BloomFilter;
+import com.blog.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Answers "is this username / email taken?" from in-memory Bloom filters. A negative answer
+ * is definitive and costs no query; only a possible hit is confirmed against the database.
+ * Filters are rebuilt from the users table on the scheduler, first right after startup and
+ * then periodically, which also picks up registrations made on other nodes. Until a build
+ * succeeds every check goes to the database.
+ */
+@Service
+public class UserAvailabilityService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserAvailabilityService.class);
+    
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final long MIN_CAPACITY = 10_000;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Value("${blog.users.availability.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    private volatile Filters filters;
+    // Registrations seen while a rebuild is reading the table, replayed into the new filters;
+    // null when no rebuild is running. Guarded by lock, as is swapping the filters.
+    private List<String[]> registeredDuringRebuild;
+    private final ReentrantLock lock = new ReentrantLock();
+    // One rebuild at a time; the seeder can start one while the scheduled one is running
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    
+    @Scheduled(initialDelay = 0, fixedDelayString = "${blog.users.availability.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildFilters();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+    
+    private void rebuildFilters() {
+        long start = System.currentTimeMillis();
+        lock.lock();
+        try {
+            registeredDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        
+        Filters rebuilt = null;
+        boolean complete = false;
+        try {
+            long userCount = userRepository.count();
+            // Room to double before the false positive rate starts to climb
+            rebuilt = new Filters(Math.max(MIN_CAPACITY, userCount * 2), falsePositiveRate);
+            
+            long lastId = 0L;
+            List<Object[]> batch;
+            do {
+                batch = userRepository.findCredentialsAfter(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Object[] row : batch) {
+                    lastId = (Long) row[0];
+                    rebuilt.add((String) row[1], (String) row[2]);
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            complete = true;
+        } catch (RuntimeException e) {
+            logger.warn("Could not rebuild the availability filters; {} until the next rebuild",
+                    filters == null ? "checks go to the database" : "keeping the current filters", e);
+        } finally {
+            // A user committed after its batch was read is only in the old filters; carry it over.
+            // On failure the old filters stay and nothing more is recorded.
+            lock.lock();
+            try {
+                if (complete) {
+                    for (String[] user : registeredDuringRebuild) {
+                        rebuilt.add(user[0], user[1]);
+                    }
+                    filters = rebuilt;
+                }
+                registeredDuringRebuild = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (complete) {
+            logger.info("Availability filters built over {} users in {} ms", rebuilt.count.get(), System.currentTimeMillis() - start);
+        }
+    }
+    
+    public boolean isUsernameTaken(String username) {
+        if (!mightBeTaken(username, true)) {
+            return false;
+        }
+        return userRepository.existsByUsername(username.trim());
+    }
+    
+    public boolean isEmailTaken(String email) {
+        if (!mightBeTaken(email, false)) {
+            return false;
+        }
+        return userRepository.existsByEmail(email.trim());
+    }
+    
+    // False only when the value is certainly unused; true while the filters are still being built
+    public boolean mightBeTaken(String value, boolean username) {
+        Filters current = filters;
+        if (current == null) {
+            return true;
+        }
+        String key = normalize(value);
+        return username ? current.usernames.mightContain(key) : current.emails.mightContain(key);
+    }
+    
+    public void registered(String username, String email) {
+        Filters current;
+        lock.lock();
+        try {
+            if (registeredDuringRebuild != null) {
+                registeredDuringRebuild.add(new String[] { username, email });
+            }
+            current = filters;
+            if (current == null) return;
+            current.add(username, email);
+        } finally {
+            lock.unlock();
+        }
+        if (current.count.get() > current.capacity) {
+            // Saturated; the next scheduled rebuild sizes the filters from the real user count
+            logger.info("Availability filters exceeded their capacity of {}", current.capacity);
+        }
+    }
+    
+    // MySQL's default collation compares case-insensitively, so the filters do too
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static final class Filters {
+        final BloomFilter usernames;
+        final BloomFilter emails;
+        final long capacity;
+        final AtomicLong count = new AtomicLong();
+        
+        Filters(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.usernames = new BloomFilter(capacity, falsePositiveRate);
+            this.emails = new BloomFilter(capacity, falsePositiveRate);
+        }
+        
+        void add(String username, String email) {
+            usernames.put(normalize(username));
+            emails.put(normalize(email));
+            count.incrementAndGet();
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.blog.service;
 
+import com.blog.cache.BoundedCache;
+import com.blog.dto.PostCardSlice;
+import com.blog.dto.SessionUser;
 import com.blog.dto.UserDto;
+import com.blog.model.Post;
 import com.blog.model.User;
 import com.blog.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
@@ -18,39 +23,101 @@ public class UserService {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
     
+    @Autowired
+    private UserAvailabilityService userAvailabilityService;
+    
+    @Autowired
+    private BoundedCache<Long, User> userByIdCache;
+    
+    @Autowired
+    private BoundedCache<String, User> userByUsernameCache;
+    
+    @Autowired
+    private BoundedCache<Long, Post> postCache;
+    
+    @Autowired
+    private BoundedCache<Integer, PostCardSlice> feedCache;
+    
+    // Hashing can queue behind other logins, so it runs outside any transaction and holds no
+    // connection. It goes first to keep the checks and the insert together; a duplicate
+    // registration wastes one hash, which is rare given the filters.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerUser(UserDto userDto) {
-        // Check if username or email already exists
-        if (userRepository.existsByUsername(userDto.getUsername())) {
-            throw new IllegalArgumentException("Username already exists");
-        }
-        if (userRepository.existsByEmail(userDto.getEmail())) {
-            throw new IllegalArgumentException("Email already exists");
+        String passwordHash = passwordHashingService.encode(userDto.getPassword());
+        
+        // Check if username or email already exists: one query, and none at all when the
+        // availability filters rule both out. The unique indexes still catch any race.
+        String username = userDto.getUsername();
+        String email = userDto.getEmail();
+        if (userAvailabilityService.mightBeTaken(username, true) || userAvailabilityService.mightBeTaken(email, false)) {
+            List<User> clashes = userRepository.findByUsernameOrEmail(username, email);
+            if (clashes.stream().anyMatch(existing -> existing.getUsername().equalsIgnoreCase(username))) {
+                throw new IllegalArgumentException("Username already exists");
+            }
+            if (!clashes.isEmpty()) {
+                throw new IllegalArgumentException("Email already exists");
+            }
         }
         
         // Create new user
         User user = new User();
         user.setUsername(userDto.getUsername());
         user.setEmail(userDto.getEmail());
-        user.setPassword(passwordEncoder.encode(userDto.getPassword()));
+        user.setPassword(passwordHash);
         user.setFirstName(userDto.getFirstName());
         user.setLastName(userDto.getLastName());
         user.setIsActive(true);
         
-        return userRepository.save(user);
+        User saved;
+        try {
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Username or email already exists");
+        }
+        AfterCommit.run(() -> userAvailabilityService.registered(username, email));
+        return saved;
     }
     
     public Optional<User> findByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return Optional.ofNullable(userByUsernameCache.get(username, key -> userRepository.findByUsername(key).orElse(null)));
     }
     
     public Optional<User> findById(Long id) {
-        return userRepository.findById(id);
+        return Optional.ofNullable(userByIdCache.get(id, key -> userRepository.findById(key).orElse(null)));
+    }
+    
+    // Maps the session principal back to its account through the user cache; empty once the
+    // account has been deleted or deactivated
+    public Optional<User> findActiveUser(SessionUser principal) {
+        if (principal == null) {
+            return Optional.empty();
+        }
+        return findById(principal.getId()).filter(user -> Boolean.TRUE.equals(user.getIsActive()));
     }
     
+    // Hashing can queue behind other logins, so no transaction (and no connection) is held meanwhile
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean validatePassword(String rawPassword, String encodedPassword) {
-        return passwordEncoder.matches(rawPassword, encodedPassword);
+        return passwordHashingService.matches(rawPassword, encodedPassword);
+    }
+    
+    // Verifies the password and, on success, rehashes a hash made with an older cost factor
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean checkPassword(User user, String rawPassword) {
+        if (!passwordHashingService.matches(rawPassword, user.getPassword())) {
+            return false;
+        }
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            try {
+                userRepository.updatePassword(user.getId(), passwordHashingService.encode(rawPassword));
+                evictAfterWrite(user.getId());
+            } catch (ServiceBusyException e) {
+                // Not worth failing the login over; the next one will try again
+            }
+        }
+        return true;
     }
     
     public List<User> getAllActiveUsers() {
@@ -58,11 +125,27 @@ public class UserService {
     }
     
     public User updateUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        evictAfterWrite(saved.getId());
+        return saved;
     }
     
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        evictAfterWrite(id);
+    }
+    
+    // The username may have changed, and cached posts and feed cards carry the author's
+    // name, so those caches are cleared wholesale; user edits are rare.
+    private void evictAfterWrite(Long userId) {
+        Runnable evict = () -> {
+            userByIdCache.invalidate(userId);
+            userByUsernameCache.invalidateAll();
+            postCache.invalidateAll();
+            feedCache.invalidateAll();
+        };
+        evict.run();
+        AfterCommit.run(evict);
     }
     
     // Convert Entity to DTO
@@ -0,0 +1,129 @@
+package com.blog.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * One serialized file per session in a local directory. Meant for tests and single-node
+ * setups that should survive a restart without a database table.
+ */
+public class FileSessionStore implements SessionStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FileSessionStore.class);
+    
+    private static final String SUFFIX = ".session";
+    // Session ids are generated base64url; anything else never touches the file system
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    
+    private final Path directory;
+    
+    public FileSessionStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+    
+    @Override
+    public Optional<StoredSession> load(String id) {
+        Path file = fileFor(id);
+        if (file == null) {
+            return Optional.empty();
+        }
+        try (InputStream in = Files.newInputStream(file);
+             ObjectInputStream objects = new ObjectInputStream(in)) {
+            return Optional.of((StoredSession) objects.readObject());
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | ClassNotFoundException e) {
+            logger.warn("Discarding unreadable session file {}", file, e);
+            deleteQuietly(file);
+            return Optional.empty();
+        }
+    }
+    
+    @Override
+    public void save(StoredSession session) {
+        Path file = fileFor(session.getId());
+        if (file == null) {
+            throw new IllegalArgumentException("Invalid session id");
+        }
+        try {
+            Path temp = Files.createTempFile(directory, session.getId(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp);
+                 ObjectOutputStream objects = new ObjectOutputStream(out)) {
+                objects.writeObject(session);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write session " + session.getId(), e);
+        }
+    }
+    
+    @Override
+    public void touch(Map<String, Long> lastAccessTimes) {
+        for (Map.Entry<String, Long> entry : lastAccessTimes.entrySet()) {
+            load(entry.getKey()).ifPresent(session -> {
+                if (session.getLastAccessedTime() < entry.getValue()) {
+                    session.setLastAccessedTime(entry.getValue());
+                    save(session);
+                }
+            });
+        }
+    }
+    
+    @Override
+    public void delete(String id) {
+        Path file = fileFor(id);
+        if (file != null) {
+            deleteQuietly(file);
+        }
+    }
+    
+    @Override
+    public int deleteExpired(long now, int batchSize) {
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (deleted >= batchSize) break;
+                String name = file.getFileName().toString();
+                Optional<StoredSession> session = load(name.substring(0, name.length() - SUFFIX.length()));
+                if (session.isPresent() && session.get().isExpired(now)) {
+                    deleteQuietly(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not sweep session directory {}", directory, e);
+        }
+        return deleted;
+    }
+    
+    private Path fileFor(String id) {
+        if (id == null || !VALID_ID.matcher(id).matches()) {
+            return null;
+        }
+        return directory.resolve(id + SUFFIX);
+    }
+    
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete session file {}", file, e);
+        }
+    }
+}
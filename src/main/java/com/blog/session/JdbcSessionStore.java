@@ -0,0 +1,131 @@
+package com.blog.session;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Sessions in the application database. Expiry is stored as a column so the sweep
+ * is an indexed range read rather than a scan of every session. The SQL is kept to what
+ * MySQL and H2 (the test database) both accept.
+ */
+public class JdbcSessionStore implements SessionStore {
+    
+    private static final String TABLE = "blog_sessions";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public JdbcSessionStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    // MySQL has no CREATE INDEX IF NOT EXISTS, so the index is only made with the table.
+    // Attributes hold the slim principal and flash messages; BLOB's 64 KB on MySQL is ample.
+    public void createTableIfMissing() {
+        if (tableExists()) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (" +
+                "session_id VARCHAR(64) NOT NULL PRIMARY KEY, " +
+                "creation_time BIGINT NOT NULL, " +
+                "last_accessed_time BIGINT NOT NULL, " +
+                "max_inactive_seconds INT NOT NULL, " +
+                "expiry_time BIGINT NOT NULL, " +
+                "attributes BLOB)");
+        jdbcTemplate.execute("CREATE INDEX idx_blog_sessions_expiry ON " + TABLE + " (expiry_time)");
+    }
+    
+    // Unquoted names are stored upper-case by some databases (H2) and as written by others
+    private boolean tableExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String name = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase() : TABLE;
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[] { "TABLE" })) {
+                return tables.next();
+            }
+        }));
+    }
+    
+    @Override
+    public Optional<StoredSession> load(String id) {
+        List<StoredSession> rows = jdbcTemplate.query(
+                "SELECT session_id, creation_time, last_accessed_time, max_inactive_seconds, attributes " +
+                "FROM " + TABLE + " WHERE session_id = ?",
+                (rs, rowNum) -> new StoredSession(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getInt(4),
+                        StoredSession.deserializeAttributes(rs.getBytes(5))),
+                id);
+        return rows.stream().findFirst();
+    }
+    
+    @Override
+    public void save(StoredSession session) {
+        byte[] attributes = session.serializeAttributes();
+        int updated = jdbcTemplate.update(
+                "UPDATE " + TABLE + " SET last_accessed_time = ?, max_inactive_seconds = ?, expiry_time = ?, attributes = ? " +
+                "WHERE session_id = ?",
+                session.getLastAccessedTime(), session.getMaxInactiveSeconds(), session.getExpiryTime(), attributes,
+                session.getId());
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO " + TABLE + " (session_id, creation_time, last_accessed_time, max_inactive_seconds, " +
+                    "expiry_time, attributes) VALUES (?, ?, ?, ?, ?, ?)",
+                    session.getId(), session.getCreationTime(), session.getLastAccessedTime(),
+                    session.getMaxInactiveSeconds(), session.getExpiryTime(), attributes);
+        }
+    }
+    
+    @Override
+    public void touch(Map<String, Long> lastAccessTimes) {
+        if (lastAccessTimes.isEmpty()) return;
+        List<Object[]> batch = new ArrayList<>(lastAccessTimes.size());
+        for (Map.Entry<String, Long> entry : lastAccessTimes.entrySet()) {
+            batch.add(new Object[] { entry.getValue(), entry.getValue(), entry.getKey(), entry.getValue() });
+        }
+        // Never move a timestamp backwards if another node recorded a later access
+        jdbcTemplate.batchUpdate(
+                "UPDATE " + TABLE + " SET last_accessed_time = ?, " +
+                "expiry_time = CASE WHEN max_inactive_seconds > 0 THEN ? + max_inactive_seconds * 1000 ELSE expiry_time END " +
+                "WHERE session_id = ? AND last_accessed_time < ?",
+                batch);
+    }
+    
+    @Override
+    public void delete(String id) {
+        jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE session_id = ?", id);
+    }
+    
+    // DELETE ... LIMIT is MySQL-only, so a batch of expired ids is read with a row limit and
+    // deleted by key; the expiry is checked again in case a session was used in between
+    @Override
+    public int deleteExpired(long now, int batchSize) {
+        List<String> expired = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT session_id FROM " + TABLE + " WHERE expiry_time < ? ORDER BY expiry_time");
+            statement.setLong(1, now);
+            statement.setMaxRows(batchSize);
+            return statement;
+        }, (rs, rowNum) -> rs.getString(1));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> batch = new ArrayList<>(expired.size());
+        for (String id : expired) {
+            batch.add(new Object[] { id, now });
+        }
+        int deleted = 0;
+        for (int count : jdbcTemplate.batchUpdate(
+                "DELETE FROM " + TABLE + " WHERE session_id = ? AND expiry_time < ?", batch)) {
+            // Drivers that rewrite batches report success without a row count
+            deleted += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return deleted;
+    }
+}
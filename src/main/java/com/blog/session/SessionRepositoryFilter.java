@@ -0,0 +1,217 @@
+package com.blog.session;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the container's HttpSession with one held in a {@link SessionStore}.
+ * A session is only written when its attributes change, and only stored at all once it
+ * has an attribute, so anonymous page views never cause a write.
+ */
+public class SessionRepositoryFilter extends OncePerRequestFilter {
+    
+    private final SharedSessionManager sessionManager;
+    private final String cookieName;
+    
+    public SessionRepositoryFilter(SharedSessionManager sessionManager, String cookieName) {
+        this.sessionManager = sessionManager;
+        this.cookieName = cookieName;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SessionResponseWrapper wrappedResponse = new SessionResponseWrapper(response);
+        SessionRequestWrapper wrappedRequest = new SessionRequestWrapper(request, wrappedResponse);
+        wrappedResponse.request = wrappedRequest;
+        try {
+            chain.doFilter(wrappedRequest, wrappedResponse);
+        } finally {
+            wrappedRequest.commitSession();
+        }
+    }
+    
+    private String readCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return null;
+        for (Cookie cookie : cookies) {
+            if (cookieName.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+    
+    private void writeCookie(HttpServletRequest request, HttpServletResponse response, String value, Duration maxAge) {
+        String path = request.getContextPath().isEmpty() ? "/" : request.getContextPath();
+        ResponseCookie cookie = ResponseCookie.from(cookieName, value)
+                .path(path)
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+    
+    private final class SessionRequestWrapper extends HttpServletRequestWrapper {
+        
+        private final HttpServletResponse response;
+        private final String requestedSessionId;
+        private boolean requestedSessionLoaded;
+        private boolean requestedSessionValid;
+        private SharedSession session;
+        private final List<String> invalidatedIds = new ArrayList<>();
+        
+        SessionRequestWrapper(HttpServletRequest request, HttpServletResponse response) {
+            super(request);
+            this.response = response;
+            this.requestedSessionId = readCookie(request);
+        }
+        
+        @Override
+        public HttpSession getSession(boolean create) {
+            if (session != null && !session.isInvalidated()) {
+                return session;
+            }
+            long now = System.currentTimeMillis();
+            if (!requestedSessionLoaded) {
+                requestedSessionLoaded = true;
+                if (requestedSessionId != null) {
+                    sessionManager.find(requestedSessionId, now).ifPresent(data -> {
+                        data.setLastAccessedTime(now);
+                        session = new SharedSession(data, getServletContext(), false, () -> { });
+                        requestedSessionValid = true;
+                    });
+                    if (session != null) {
+                        return session;
+                    }
+                }
+            }
+            if (!create) {
+                return null;
+            }
+            if (session != null) {
+                invalidatedIds.add(session.getId());
+            }
+            StoredSession data = sessionManager.create(now);
+            // The cookie goes out with the first attribute write, while the response is still open
+            session = new SharedSession(data, getServletContext(), true,
+                    () -> writeCookie(this, response, data.getId(), Duration.ofSeconds(-1)));
+            return session;
+        }
+        
+        @Override
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+        
+        @Override
+        public String changeSessionId() {
+            if (getSession(false) == null) {
+                throw new IllegalStateException("No session to change the id of");
+            }
+            invalidatedIds.add(session.getId());
+            StoredSession renamed = sessionManager.changeId(session.getData());
+            session = new SharedSession(renamed, getServletContext(), true, () -> { });
+            writeCookie(this, response, renamed.getId(), Duration.ofSeconds(-1));
+            sessionManager.save(renamed);
+            return renamed.getId();
+        }
+        
+        @Override
+        public String getRequestedSessionId() {
+            return requestedSessionId;
+        }
+        
+        @Override
+        public boolean isRequestedSessionIdValid() {
+            getSession(false);
+            return requestedSessionValid && session != null && !session.isInvalidated()
+                    && session.getId().equals(requestedSessionId);
+        }
+        
+        @Override
+        public boolean isRequestedSessionIdFromCookie() {
+            return requestedSessionId != null;
+        }
+        
+        @Override
+        public boolean isRequestedSessionIdFromURL() {
+            return false;
+        }
+        
+        // Called before the response commits and again at the end of the request; idempotent
+        void commitSession() {
+            if (session != null && session.isInvalidated()) {
+                invalidatedIds.add(session.getId());
+                session = null;
+            }
+            for (String id : invalidatedIds) {
+                sessionManager.delete(id);
+            }
+            if (!invalidatedIds.isEmpty() && session == null && !response.isCommitted()) {
+                writeCookie(this, response, "", Duration.ZERO);
+            }
+            invalidatedIds.clear();
+            
+            if (session == null) return;
+            StoredSession data = session.getData();
+            if (session.isDirty()) {
+                sessionManager.save(data);
+                session.clearDirty();
+            } else if (!session.isNew()) {
+                sessionManager.recordAccess(data.getId(), data.getLastAccessedTime());
+            }
+        }
+    }
+    
+    // Persists the session before anything that commits the response, so a browser following
+    // a redirect right after login already finds its session in the store
+    private static final class SessionResponseWrapper extends HttpServletResponseWrapper {
+        
+        private SessionRequestWrapper request;
+        
+        SessionResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+        
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            request.commitSession();
+            super.sendRedirect(location);
+        }
+        
+        @Override
+        public void sendError(int sc) throws IOException {
+            request.commitSession();
+            super.sendError(sc);
+        }
+        
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            request.commitSession();
+            super.sendError(sc, msg);
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            request.commitSession();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.blog.session;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Persistent home for HTTP sessions so that any node can serve any request and a restart
+ * does not sign everyone out. Access timestamps arrive in batches, never one write per request.
+ */
+public interface SessionStore {
+    
+    Optional<StoredSession> load(String id);
+    
+    // Inserts or replaces the session including its attributes
+    void save(StoredSession session);
+    
+    // Session id -> last access time in epoch millis, applied as one batch
+    void touch(Map<String, Long> lastAccessTimes);
+    
+    void delete(String id);
+    
+    // Removes at most batchSize sessions that expired before now; returns how many went
+    int deleteExpired(long now, int batchSize);
+}
@@ -0,0 +1,127 @@
+package com.blog.session;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+
+/**
+ * Request-scoped view of a {@link StoredSession}. Attribute changes mark it dirty so it is
+ * written back once per request; reads alone only record an access time.
+ */
+class SharedSession implements HttpSession {
+    
+    private final StoredSession data;
+    private final ServletContext servletContext;
+    private final boolean isNew;
+    private final Runnable onFirstWrite;
+    private boolean dirty;
+    private boolean invalidated;
+    
+    SharedSession(StoredSession data, ServletContext servletContext, boolean isNew, Runnable onFirstWrite) {
+        this.data = data;
+        this.servletContext = servletContext;
+        this.isNew = isNew;
+        this.onFirstWrite = onFirstWrite;
+    }
+    
+    @Override
+    public long getCreationTime() {
+        checkValid();
+        return data.getCreationTime();
+    }
+    
+    @Override
+    public String getId() {
+        return data.getId();
+    }
+    
+    @Override
+    public long getLastAccessedTime() {
+        checkValid();
+        return data.getLastAccessedTime();
+    }
+    
+    @Override
+    public ServletContext getServletContext() {
+        return servletContext;
+    }
+    
+    @Override
+    public void setMaxInactiveInterval(int interval) {
+        data.setMaxInactiveSeconds(interval);
+        markDirty();
+    }
+    
+    @Override
+    public int getMaxInactiveInterval() {
+        return data.getMaxInactiveSeconds();
+    }
+    
+    @Override
+    public Object getAttribute(String name) {
+        checkValid();
+        return data.getAttributes().get(name);
+    }
+    
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        checkValid();
+        return Collections.enumeration(new HashSet<>(data.getAttributes().keySet()));
+    }
+    
+    @Override
+    public void setAttribute(String name, Object value) {
+        checkValid();
+        if (value == null) {
+            removeAttribute(name);
+            return;
+        }
+        if (!(value instanceof Serializable)) {
+            throw new IllegalArgumentException("Session attribute " + name + " is not serializable");
+        }
+        data.getAttributes().put(name, value);
+        markDirty();
+    }
+    
+    @Override
+    public void removeAttribute(String name) {
+        checkValid();
+        if (data.getAttributes().remove(name) != null) {
+            markDirty();
+        }
+    }
+    
+    @Override
+    public void invalidate() {
+        checkValid();
+        invalidated = true;
+    }
+    
+    @Override
+    public boolean isNew() {
+        checkValid();
+        return isNew;
+    }
+    
+    private void markDirty() {
+        if (!dirty && isNew) {
+            onFirstWrite.run();
+        }
+        dirty = true;
+    }
+    
+    private void checkValid() {
+        if (invalidated) {
+            throw new IllegalStateException("Session " + data.getId() + " has been invalidated");
+        }
+    }
+    
+    StoredSession getData() { return data; }
+    boolean isDirty() { return dirty; }
+    boolean isInvalidated() { return invalidated; }
+    void clearDirty() { dirty = false; }
+}
@@ -0,0 +1,129 @@
+package com.blog.session;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates, loads and persists shared sessions. Access times are only buffered here and
+ * written to the store in periodic batches; expired sessions are swept in bounded batches.
+ */
+public class SharedSessionManager {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SharedSessionManager.class);
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int ID_BYTES = 32;
+    
+    private final SessionStore store;
+    private final int maxInactiveSeconds;
+    private final int sweepBatchSize;
+    
+    // session id -> latest access time not yet written to the store
+    private final ConcurrentHashMap<String, Long> pendingAccess = new ConcurrentHashMap<>();
+    
+    public SharedSessionManager(SessionStore store, int maxInactiveSeconds, int sweepBatchSize) {
+        this.store = store;
+        this.maxInactiveSeconds = maxInactiveSeconds;
+        this.sweepBatchSize = sweepBatchSize;
+    }
+    
+    public StoredSession create(long now) {
+        return new StoredSession(newId(), now, now, maxInactiveSeconds, Map.of());
+    }
+    
+    public Optional<StoredSession> find(String id, long now) {
+        Optional<StoredSession> loaded = store.load(id);
+        if (loaded.isEmpty()) {
+            pendingAccess.remove(id);
+            return Optional.empty();
+        }
+        StoredSession session = loaded.get();
+        // The store may lag behind by one flush interval
+        Long pending = pendingAccess.get(id);
+        if (pending != null && pending > session.getLastAccessedTime()) {
+            session.setLastAccessedTime(pending);
+        }
+        if (session.isExpired(now)) {
+            delete(id);
+            return Optional.empty();
+        }
+        return loaded;
+    }
+    
+    public void recordAccess(String id, long now) {
+        pendingAccess.merge(id, now, Math::max);
+    }
+    
+    public void save(StoredSession session) {
+        store.save(session);
+        pendingAccess.computeIfPresent(session.getId(),
+                (id, pending) -> pending > session.getLastAccessedTime() ? pending : null);
+    }
+    
+    public void delete(String id) {
+        pendingAccess.remove(id);
+        store.delete(id);
+    }
+    
+    // New id, same state; used to defeat session fixation
+    public StoredSession changeId(StoredSession session) {
+        return new StoredSession(newId(), session.getCreationTime(), session.getLastAccessedTime(),
+                session.getMaxInactiveSeconds(), session.getAttributes());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flushAccessTimes();
+    }
+    
+    @Scheduled(fixedDelayString = "${blog.session.flush-interval-ms:10000}")
+    public void flushAccessTimes() {
+        if (pendingAccess.isEmpty()) return;
+        Map<String, Long> batch = new HashMap<>();
+        for (String id : pendingAccess.keySet()) {
+            Long time = pendingAccess.remove(id);
+            if (time != null) {
+                batch.put(id, time);
+            }
+        }
+        try {
+            store.touch(batch);
+        } catch (RuntimeException e) {
+            logger.warn("Could not write {} session access times; retrying next flush", batch.size(), e);
+            batch.forEach((id, time) -> pendingAccess.merge(id, time, Math::max));
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${blog.session.cleanup-interval-ms:60000}")
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = store.deleteExpired(now, sweepBatchSize);
+            total += deleted;
+        } while (deleted == sweepBatchSize);
+        if (total > 0) {
+            logger.debug("Removed {} expired sessions", total);
+        }
+    }
+    
+    public int getPendingAccessCount() {
+        return pendingAccess.size();
+    }
+    
+    private static String newId() {
+        byte[] bytes = new byte[ID_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
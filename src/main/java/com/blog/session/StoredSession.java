@@ -0,0 +1,71 @@
+package com.blog.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Session state as it is persisted: timestamps in epoch millis plus serializable attributes
+public class StoredSession implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final String id;
+    private final long creationTime;
+    private long lastAccessedTime;
+    private int maxInactiveSeconds;
+    private final HashMap<String, Object> attributes;
+    
+    public StoredSession(String id, long creationTime, long lastAccessedTime, int maxInactiveSeconds,
+                         Map<String, Object> attributes) {
+        this.id = id;
+        this.creationTime = creationTime;
+        this.lastAccessedTime = lastAccessedTime;
+        this.maxInactiveSeconds = maxInactiveSeconds;
+        this.attributes = new HashMap<>(attributes);
+    }
+    
+    public boolean isExpired(long now) {
+        return maxInactiveSeconds > 0 && now - lastAccessedTime >= maxInactiveSeconds * 1000L;
+    }
+    
+    public long getExpiryTime() {
+        return maxInactiveSeconds > 0 ? lastAccessedTime + maxInactiveSeconds * 1000L : Long.MAX_VALUE;
+    }
+    
+    public byte[] serializeAttributes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(attributes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not serialize session " + id, e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> deserializeAttributes(byte[] data) {
+        if (data == null || data.length == 0) {
+            return new HashMap<>();
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (Map<String, Object>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Could not read session attributes", e);
+        }
+    }
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public long getCreationTime() { return creationTime; }
+    public long getLastAccessedTime() { return lastAccessedTime; }
+    public void setLastAccessedTime(long lastAccessedTime) { this.lastAccessedTime = lastAccessedTime; }
+    public int getMaxInactiveSeconds() { return maxInactiveSeconds; }
+    public void setMaxInactiveSeconds(int maxInactiveSeconds) { this.maxInactiveSeconds = maxInactiveSeconds; }
+    public Map<String, Object> getAttributes() { return attributes; }
+}
@@ -0,0 +1,405 @@
+package com.blog.util;
+
+/**
+ * Single-pass HTML to plain text scanner. One walk over the markup yields the text, its
+ * word and character counts and a whitespace-collapsed excerpt, without regular expressions
+ * or intermediate strings.
+ *
+ * Tags are dropped, with quoted attribute values honoured so a {@code >} inside them does
+ * not end the tag. Comments and the bodies of script and style elements are skipped, common
+ * entities are decoded, and block-level tags become line breaks so words on either side
+ * do not run together. Text that merely contains {@code <} (as in "a < b") is kept.
+ */
+public final class HtmlText {
+    
+    // Tag names packed by pack() in an open-addressed table; zero marks a free slot
+    private static final long[] BLOCK_TAGS = hashAll(
+        "p", "br", "div", "li", "ul", "ol", "tr", "td", "th", "table", "blockquote", "pre",
+        "h1", "h2", "h3", "h4", "h5", "h6", "hr", "section", "article", "header", "footer", "dd", "dt");
+    private static final long SCRIPT = pack("script");
+    private static final long STYLE = pack("style");
+    
+    // Classes of ASCII characters for the plain-text loop, which relies on SPACE being 1 and
+    // TEXT 0; everything else is looked up
+    private static final byte TEXT = 0;
+    private static final byte SPACE = 1;
+    private static final byte STOP = 2;
+    private static final byte[] ASCII_CLASS = new byte[128];
+    
+    static {
+        for (char c = 0; c < 128; c++) {
+            ASCII_CLASS[c] = Character.isWhitespace(c) ? SPACE : TEXT;
+        }
+        ASCII_CLASS['<'] = STOP;
+        ASCII_CLASS['&'] = STOP;
+    }
+    
+    private HtmlText() {
+    }
+    
+    public static final class Stats {
+        private final String text;
+        private final int wordCount;
+        private final int charCount;
+        private final String excerpt;
+        
+        Stats(String text, int wordCount, int charCount, String excerpt) {
+            this.text = text;
+            this.wordCount = wordCount;
+            this.charCount = charCount;
+            this.excerpt = excerpt;
+        }
+        
+        // Null unless requested
+        public String getText() { return text; }
+        public int getWordCount() { return wordCount; }
+        // Length of the text with leading and trailing whitespace removed
+        public int getCharCount() { return charCount; }
+        public String getExcerpt() { return excerpt; }
+    }
+    
+    // Word count, char count and an excerpt of at most excerptLength characters
+    public static Stats analyze(CharSequence html, int excerptLength) {
+        Scanner scanner = new Scanner(excerptLength, false);
+        scanner.scan(html);
+        return scanner.toStats();
+    }
+    
+    // Trimmed plain text with line breaks where block elements were
+    public static String toPlainText(CharSequence html) {
+        Scanner scanner = new Scanner(0, true);
+        scanner.scan(html);
+        return scanner.toStats().getText();
+    }
+    
+    private static long[] hashAll(String... names) {
+        long[] table = new long[64];
+        for (String name : names) {
+            long packed = pack(name);
+            int slot = slot(packed);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (table.length - 1);
+            }
+            table[slot] = packed;
+        }
+        return table;
+    }
+    
+    private static int slot(long packed) {
+        return (int) ((packed * 0x9E3779B97F4A7C15L) >>> 58);
+    }
+    
+    private static boolean isBlockTag(long name) {
+        if (name <= 0) return false;
+        for (int slot = slot(name); ; slot = (slot + 1) & (BLOCK_TAGS.length - 1)) {
+            long entry = BLOCK_TAGS[slot];
+            if (entry == name) return true;
+            if (entry == 0) return false;
+        }
+    }
+    
+    // Lower-cased ASCII tag name at 6 bits per char, the same packing skipMarkup builds while scanning
+    private static long pack(String name) {
+        long packed = 0;
+        for (int i = 0; i < name.length(); i++) {
+            packed = (packed << 6) | packChar(name.charAt(i));
+        }
+        return packed;
+    }
+    
+    // Caller passes a lower-case ASCII letter or digit
+    private static int packChar(char c) {
+        return c <= '9' ? c - '0' + 27 : c - 'a' + 1;
+    }
+    
+    private static final class Scanner {
+        
+        private final int excerptLength;
+        private final StringBuilder text;
+        private final StringBuilder excerpt;
+        
+        private int wordCount;
+        private boolean inWord;
+        private boolean started;
+        // Every character emitted, and how many of them lead or trail as whitespace
+        private int emitted;
+        private int leadingWhitespace;
+        private int trailingWhitespace;
+        private boolean excerptOpen;
+        private boolean excerptPendingSpace;
+        
+        Scanner(int excerptLength, boolean keepText) {
+            this.excerptLength = excerptLength;
+            this.text = keepText ? new StringBuilder() : null;
+            this.excerpt = excerptLength > 0 ? new StringBuilder(Math.min(excerptLength, 512)) : null;
+            this.excerptOpen = excerpt != null;
+        }
+        
+        void scan(CharSequence source) {
+            if (source == null) return;
+            // String.charAt on a Latin-1 string is a plain byte load; copying to a char[] costs more than it saves
+            String html = source.toString();
+            int length = html.length();
+            int i = 0;
+            while (i < length) {
+                char c = html.charAt(i);
+                if (c == '<') {
+                    if (i + 1 < length && startsMarkup(html.charAt(i + 1))) {
+                        i = skipMarkup(html, i);
+                    } else {
+                        emit(c);
+                        i++;
+                    }
+                } else if (c == '&') {
+                    i = decodeEntity(html, i);
+                } else {
+                    int runEnd = countRun(html, i);
+                    if (text != null) {
+                        text.append(html, i, runEnd);
+                    }
+                    i = runEnd;
+                }
+            }
+        }
+        
+        private static boolean startsMarkup(char next) {
+            return (next >= 'a' && next <= 'z') || (next >= 'A' && next <= 'Z') || next == '/' || next == '!' || next == '?'
+                    || (next >= 0x80 && Character.isLetter(next));
+        }
+        
+        // Returns the index just past the tag, comment or raw-text element starting at start
+        private int skipMarkup(String html, int start) {
+            int length = html.length();
+            if (html.charAt(start + 1) == '!' && html.startsWith("<!--", start)) {
+                int end = html.indexOf("-->", start + 4);
+                return end < 0 ? length : end + 3;
+            }
+            
+            boolean closing = html.charAt(start + 1) == '/';
+            int nameStart = start + (closing ? 2 : 1);
+            int nameEnd = nameStart;
+            long name = 0;
+            while (nameEnd < length) {
+                char c = html.charAt(nameEnd);
+                if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                } else if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9')) {
+                    if (c < 0x80 || !Character.isLetterOrDigit(c)) break;
+                    name = -1L;
+                }
+                // Names longer than ten chars pack to -1, which matches nothing
+                name = name < 0 || nameEnd - nameStart >= 10 ? -1L : (name << 6) | packChar(c);
+                nameEnd++;
+            }
+            
+            // Find the closing '>', jumping over quoted attribute values
+            int i = nameEnd;
+            while (i < length) {
+                char c = html.charAt(i);
+                if (c == '>') break;
+                if (c == '"' || c == '\'') {
+                    int close = html.indexOf(c, i + 1);
+                    i = close < 0 ? length : close;
+                }
+                i++;
+            }
+            int end = Math.min(i + 1, length);
+            
+            if (isBlockTag(name)) {
+                emit('\n');
+            } else if (!closing && (name == SCRIPT || name == STYLE)) {
+                String closeTag = "</" + html.substring(nameStart, nameEnd);
+                int close = indexOfIgnoreCase(html, closeTag, end);
+                if (close < 0) return length;
+                int closeEnd = html.indexOf('>', close);
+                return closeEnd < 0 ? length : closeEnd + 1;
+            }
+            return end;
+        }
+        
+        private int decodeEntity(String html, int start) {
+            int length = html.length();
+            int end = start + 1;
+            while (end < length && end - start <= 10 && html.charAt(end) != ';' && html.charAt(end) != '&'
+                    && !Character.isWhitespace(html.charAt(end))) {
+                end++;
+            }
+            if (end >= length || html.charAt(end) != ';' || end == start + 1) {
+                emit('&');
+                return start + 1;
+            }
+            
+            int decoded = decode(html, start + 1, end);
+            if (decoded < 0) {
+                emit('&');
+                return start + 1;
+            }
+            if (Character.isSupplementaryCodePoint(decoded)) {
+                emit(Character.highSurrogate(decoded));
+                emit(Character.lowSurrogate(decoded));
+            } else {
+                emit((char) decoded);
+            }
+            return end + 1;
+        }
+        
+        private static int decode(String html, int from, int to) {
+            if (html.charAt(from) == '#') {
+                boolean hex = to - from > 1 && (html.charAt(from + 1) == 'x' || html.charAt(from + 1) == 'X');
+                int value = 0;
+                for (int i = from + (hex ? 2 : 1); i < to; i++) {
+                    int digit = Character.digit(html.charAt(i), hex ? 16 : 10);
+                    if (digit < 0 || value > 0x10FFFF) return -1;
+                    value = value * (hex ? 16 : 10) + digit;
+                }
+                return value > 0 && value <= 0x10FFFF ? value : -1;
+            }
+            return switch (html.substring(from, to)) {
+                case "amp" -> '&';
+                case "lt" -> '<';
+                case "gt" -> '>';
+                case "quot" -> '"';
+                case "apos" -> '\'';
+                case "nbsp" -> ' ';
+                case "ndash" -> '\u2013';
+                case "mdash" -> '\u2014';
+                case "hellip" -> '\u2026';
+                case "lsquo" -> '\u2018';
+                case "rsquo" -> '\u2019';
+                case "ldquo" -> '\u201C';
+                case "rdquo" -> '\u201D';
+                case "copy" -> '\u00A9';
+                case "reg" -> '\u00AE';
+                case "trade" -> '\u2122';
+                default -> -1;
+            };
+        }
+        
+        private void emit(char c) {
+            count(c);
+            if (text != null) {
+                text.append(c);
+            }
+        }
+        
+        private void count(char c) {
+            emitted++;
+            if (isWhitespace(c)) {
+                inWord = false;
+                if (started) {
+                    trailingWhitespace++;
+                    excerptPendingSpace = true;
+                } else {
+                    leadingWhitespace++;
+                }
+                return;
+            }
+            if (!inWord) {
+                wordCount++;
+                inWord = true;
+            }
+            started = true;
+            trailingWhitespace = 0;
+            if (excerptOpen) {
+                if (excerptPendingSpace && excerpt.length() > 0) {
+                    excerpt.append(' ');
+                }
+                if (excerpt.length() < excerptLength) {
+                    excerpt.append(c);
+                }
+                excerptOpen = excerpt.length() < excerptLength;
+            }
+            excerptPendingSpace = false;
+        }
+        
+        // Counts plain text from 'from' up to the next tag or entity and returns where it stopped.
+        // Only leading whitespace goes through count(); the rest is counted in bulk.
+        private int countRun(String html, int from) {
+            int length = html.length();
+            int i = from;
+            char c;
+            while (i < length && !started && (c = html.charAt(i)) != '<' && c != '&') {
+                count(c);
+                i++;
+            }
+            
+            // Branch-free on the space/text alternation, which is too irregular to predict:
+            // space is 1 after whitespace and 0 after text, so a word starts on each 1 -> 0 step
+            int fastStart = i;
+            int previous = inWord ? TEXT : SPACE;
+            int words = wordCount;
+            int trailing = trailingWhitespace;
+            while (i < length) {
+                c = html.charAt(i);
+                int space;
+                if (c < 128) {
+                    space = ASCII_CLASS[c];
+                    if (space == STOP) break;
+                } else {
+                    space = isWhitespace(c) ? SPACE : TEXT;
+                }
+                words += previous & (space ^ 1);
+                trailing = (trailing + 1) * space;
+                previous = space;
+                i++;
+            }
+            inWord = previous == TEXT;
+            wordCount = words;
+            trailingWhitespace = trailing;
+            emitted += i - fastStart;
+            if (excerptOpen) {
+                appendExcerpt(html, fastStart, i);
+            }
+            return i;
+        }
+        
+        // The excerpt half of count() for a run of text that follows the first word,
+        // appending a word at a time
+        private void appendExcerpt(String html, int from, int to) {
+            int i = from;
+            while (i < to) {
+                if (isWhitespace(html.charAt(i))) {
+                    excerptPendingSpace = true;
+                    i++;
+                    continue;
+                }
+                int wordEnd = i + 1;
+                while (wordEnd < to && !isWhitespace(html.charAt(wordEnd))) {
+                    wordEnd++;
+                }
+                if (excerptPendingSpace && excerpt.length() > 0) {
+                    excerpt.append(' ');
+                }
+                excerptPendingSpace = false;
+                excerpt.append(html, i, i + Math.min(wordEnd - i, excerptLength - excerpt.length()));
+                if (excerpt.length() >= excerptLength) {
+                    excerptOpen = false;
+                    return;
+                }
+                i = wordEnd;
+            }
+        }
+        
+        private static boolean isWhitespace(char c) {
+            if (c == ' ') return true;
+            if (c < ' ') return Character.isWhitespace(c);
+            return c >= 0x80 && (c == '\u00A0' || Character.isWhitespace(c));
+        }
+        
+        Stats toStats() {
+            int charCount = emitted - leadingWhitespace - trailingWhitespace;
+            String plain = null;
+            if (text != null) {
+                plain = text.substring(leadingWhitespace, leadingWhitespace + charCount);
+            }
+            return new Stats(plain, wordCount, charCount, excerpt != null ? excerpt.toString() : "");
+        }
+        
+        private static int indexOfIgnoreCase(String html, String needle, int from) {
+            for (int i = from; i + needle.length() <= html.length(); i++) {
+                if (html.regionMatches(true, i, needle, 0, needle.length())) return i;
+            }
+            return -1;
+        }
+    }
+}
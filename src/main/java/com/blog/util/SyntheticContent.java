@@ -0,0 +1,127 @@
+package com.blog.util;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic filler text and HTML post bodies, shared by the seed data generator and the
+ * benchmarks so both work on the same mix of markup. Everything is drawn from the caller's
+ * random source, so the same seed always produces the same content.
+ *
+ * Bodies are built from headings, paragraphs, lists and the odd code block; paragraphs carry
+ * inline emphasis, links and entities, so the HTML scanners see attributes and escapes as
+ * well as plain tags.
+ */
+public final class SyntheticContent {
+
+    private static final String[] WORDS = {
+        "spring", "java", "thread", "cache", "index", "query", "latency", "memory", "garbage", "collector",
+        "heap", "stream", "buffer", "socket", "server", "client", "request", "response", "session", "cookie",
+        "database", "table", "column", "join", "batch", "commit", "transaction", "lock", "queue", "worker",
+        "export", "document", "render", "template", "layout", "page", "cursor", "offset", "search", "ranking",
+        "profile", "benchmark", "throughput", "percentile", "budget", "metric", "timer", "counter", "gauge", "trace",
+        "performance", "blog", "post", "reader", "writer",
+        "the", "a", "of", "and", "to", "in", "is", "for", "with", "on", "that", "this", "we", "it", "by", "from",
+        "when", "every", "each", "more", "less", "than", "only", "still", "then", "after", "before", "under",
+        "fast", "slow", "large", "small", "simple", "careful", "hot", "cold", "busy", "idle", "stable", "noisy"
+    };
+    private static final String[] TAG_TOPICS = {
+        "java", "spring", "performance", "database", "caching", "testing", "devops", "security",
+        "frontend", "architecture", "jvm", "concurrency", "search", "observability", "cloud", "career"
+    };
+
+    private SyntheticContent() {
+    }
+
+    public static String title(SplittableRandom random) {
+        return capitalize(sentence(random, 4 + random.nextInt(6)));
+    }
+
+    public static String summary(SplittableRandom random) {
+        return capitalize(sentence(random, 12 + random.nextInt(20))) + ".";
+    }
+
+    // A body of at least the given number of words
+    public static String htmlWithWords(SplittableRandom random, int words) {
+        StringBuilder html = new StringBuilder(words * 8 + 256);
+        int written = 0;
+        while (written < words) {
+            written += appendBlock(html, random);
+        }
+        return html.toString();
+    }
+
+    // A body of at least the given number of characters, markup included
+    public static String htmlWithLength(SplittableRandom random, int length) {
+        StringBuilder html = new StringBuilder(length + 512);
+        while (html.length() < length) {
+            appendBlock(html, random);
+        }
+        return html.toString();
+    }
+
+    // Topic names first, then numbered variants such as java-1, so any number of tags is distinct
+    public static String tagName(int index) {
+        String topic = TAG_TOPICS[index % TAG_TOPICS.length];
+        return index < TAG_TOPICS.length ? topic : topic + "-" + (index / TAG_TOPICS.length);
+    }
+
+    public static String sentence(SplittableRandom random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sentence.append(' ');
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+
+    // Appends one block element and returns the number of words in it
+    private static int appendBlock(StringBuilder html, SplittableRandom random) {
+        int block = random.nextInt(10);
+        if (block == 0) {
+            int words = 3 + random.nextInt(5);
+            html.append("<h2>").append(capitalize(sentence(random, words))).append("</h2>\n");
+            return words;
+        }
+        if (block == 1) {
+            int words = 0;
+            html.append("<ul>");
+            for (int i = 2 + random.nextInt(4); i > 0; i--) {
+                int item = 4 + random.nextInt(8);
+                html.append("<li>").append(capitalize(sentence(random, item))).append("</li>");
+                words += item;
+            }
+            html.append("</ul>\n");
+            return words;
+        }
+        if (block == 2) {
+            // Dotted identifiers read as a single word
+            html.append("<pre><code>").append(sentence(random, 8 + random.nextInt(16)).replace(' ', '.'))
+                    .append("();</code></pre>\n");
+            return 1;
+        }
+        int words = 0;
+        html.append("<p>");
+        for (int i = 2 + random.nextInt(5); i > 0; i--) {
+            int length = 8 + random.nextInt(14);
+            for (int w = 0; w < length; w++) {
+                if (w > 0) html.append(' ');
+                String word = WORDS[random.nextInt(WORDS.length)];
+                if (w == 0) word = capitalize(word);
+                switch (random.nextInt(40)) {
+                    case 0 -> html.append("<strong>").append(word).append("</strong>");
+                    case 1 -> html.append("<a href=\"https://example.com/").append(word).append("\">").append(word).append("</a>");
+                    case 2 -> html.append(word).append(" &amp;");
+                    default -> html.append(word);
+                }
+            }
+            html.append(". ");
+            words += length;
+        }
+        html.append("</p>\n");
+        return words;
+    }
+
+    private static String capitalize(String text) {
+        return text.isEmpty() ? text : Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
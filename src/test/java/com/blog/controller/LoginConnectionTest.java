@@ -0,0 +1,65 @@
+package com.blog.controller;
+
+import com.blog.cache.BoundedCache;
+import com.blog.model.User;
+import com.blog.repository.UserRepository;
+import com.blog.service.PasswordHashingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * A login can wait in the password hashing queue, so by the time it gets there the request
+ * must not hold a database connection: no transaction, and no session left bound to the
+ * request thread by the account lookup that came before it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class LoginConnectionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private List<BoundedCache<?, ?>> caches;
+
+    @SpyBean
+    private PasswordHashingService passwordHashingService;
+
+    @Test
+    void noConnectionIsHeldWhileThePasswordIsChecked() throws Exception {
+        userRepository.save(new User("hashing", "hashing@example.com",
+                passwordHashingService.encode("secret-password"), "Hash", "Waiter"));
+        // A cold user cache, so the login looks the account up in the database first
+        caches.forEach(BoundedCache::invalidateAll);
+
+        List<Object> boundDuringMatches = new ArrayList<>();
+        doAnswer(invocation -> {
+            boundDuringMatches.addAll(TransactionSynchronizationManager.getResourceMap().values());
+            return invocation.callRealMethod();
+        }).when(passwordHashingService).matches(any(), any());
+
+        mockMvc.perform(post("/auth/login")
+                        .param("username", "hashing")
+                        .param("password", "secret-password"))
+                .andExpect(redirectedUrl("/dashboard"));
+
+        assertEquals(List.of(), boundDuringMatches);
+    }
+}
@@ -0,0 +1,199 @@
+package com.blog.controller;
+
+import com.blog.cache.BoundedCache;
+import com.blog.dto.PostDto;
+import com.blog.dto.SessionUser;
+import com.blog.model.Post;
+import com.blog.model.User;
+import com.blog.repository.UserRepository;
+import com.blog.service.PostSearchIndex;
+import com.blog.service.PostService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the exact number of SQL statements behind the main pages and exports, counted by
+ * Hibernate across the whole request including template rendering. A change in any of
+ * these numbers is either an N+1 creeping in or an improvement that should update the test.
+ * Caches are cleared first, matching the cold-cache assumption of the @StatementBudget values.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatementCountTest {
+    
+    private static final int POSTS = 12;
+    
+    // A fresh export cache, so the first export of each format is a miss. Created here rather
+    // than with @TempDir, which is only injected after the per-class context has started
+    private static Path exportCacheDir;
+    
+    @DynamicPropertySource
+    static void exportCache(DynamicPropertyRegistry registry) throws IOException {
+        exportCacheDir = Files.createTempDirectory("statement-count-exports");
+        registry.add("blog.export.cache.dir", exportCacheDir::toString);
+    }
+    
+    @AfterAll
+    static void deleteExportCache() throws IOException {
+        FileSystemUtils.deleteRecursively(exportCacheDir);
+    }
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+    
+    @Autowired
+    private List<BoundedCache<?, ?>> caches;
+    
+    private Statistics statistics;
+    private User author;
+    private Post post;
+    private MockHttpSession session;
+    
+    @BeforeAll
+    void createPosts() throws InterruptedException {
+        // Search counts are for the index, which is built in the background at startup
+        for (int i = 0; i < 100 && !postSearchIndex.isBuilt(); i++) {
+            Thread.sleep(100);
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        author = userRepository.save(new User("counted", "counted@example.com", "{noop}password", "Counted", "Author"));
+        for (int i = 0; i < POSTS; i++) {
+            PostDto dto = new PostDto();
+            dto.setTitle("Statement counting " + i);
+            dto.setContent("<p>Post <em>number</em> " + i + " about indexes and query plans.</p>");
+            dto.setSummary("Summary " + i);
+            dto.setTags("java,performance" + (i % 3 == 0 ? ",mysql" : ""));
+            dto.setIsPublished(i % 4 != 0);
+            post = postService.createPost(dto, author);
+        }
+    }
+    
+    @BeforeEach
+    void signIn() {
+        session = new MockHttpSession();
+        session.setAttribute(SessionUser.SESSION_ATTRIBUTE, SessionUser.from(author));
+        caches.forEach(BoundedCache::invalidateAll);
+    }
+    
+    @Test
+    void dashboard() throws Exception {
+        assertEquals(3, statements(get("/dashboard")));
+        // The user and the post count are cached now; only the page itself is queried
+        assertEquals(1, statements(get("/dashboard")));
+    }
+    
+    @Test
+    void dashboardNumberedPage() throws Exception {
+        assertEquals(3, statements(get("/dashboard").param("page", "0")));
+    }
+    
+    @Test
+    void searchByKeyword() throws Exception {
+        assertEquals(3, statements(get("/search").param("keyword", "indexes")));
+    }
+    
+    @Test
+    void searchByTag() throws Exception {
+        assertEquals(3, statements(get("/search").param("tag", "mysql")));
+    }
+    
+    @Test
+    void viewPost() throws Exception {
+        assertEquals(3, statements(get("/posts/" + post.getId())));
+    }
+    
+    @Test
+    void editPost() throws Exception {
+        assertEquals(2, statements(get("/posts/" + post.getId() + "/edit")));
+    }
+    
+    @Test
+    void anonymousFeed() throws Exception {
+        assertEquals(2, anonymousStatements(get("/search")));
+        // The first feed page is cached; only the popular tags are queried
+        assertEquals(1, anonymousStatements(get("/search")));
+    }
+    
+    @Test
+    void anonymousSearch() throws Exception {
+        assertEquals(2, anonymousStatements(get("/search").param("keyword", "indexes")));
+    }
+    
+    @Test
+    void exportCsv() throws Exception {
+        // Generated on the first request, then served from the export cache, keyed by the
+        // cached post set version
+        assertEquals(3, statements(get("/export/posts/csv")));
+        assertEquals(0, statements(get("/export/posts/csv")));
+    }
+    
+    @Test
+    void exportExcel() throws Exception {
+        assertEquals(3, statements(get("/export/posts/excel")));
+        assertEquals(0, statements(get("/export/posts/excel")));
+    }
+    
+    @Test
+    void exportPdf() throws Exception {
+        assertEquals(3, statements(get("/export/posts/pdf")));
+        assertEquals(0, statements(get("/export/posts/pdf")));
+    }
+    
+    @Test
+    void exportZip() throws Exception {
+        // Streamed on every request, never cached
+        assertEquals(3, statements(get("/export/posts/zip")));
+    }
+    
+    private long statements(MockHttpServletRequestBuilder request) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request.session(session)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+    
+    private long anonymousStatements(MockHttpServletRequestBuilder request) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
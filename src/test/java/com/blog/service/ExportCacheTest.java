@@ -0,0 +1,111 @@
+package com.blog.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private ExportCache cache;
+
+    @BeforeEach
+    void createCache() throws Exception {
+        cache = new ExportCache();
+        ReflectionTestUtils.setField(cache, "cacheDirectory", directory.toString());
+        ReflectionTestUtils.setField(cache, "maxSizeMb", 1L);
+        ReflectionTestUtils.setField(cache, "servingLinkSeconds", 300L);
+        cache.init();
+    }
+
+    @Test
+    void concurrentMissesRenderOnce() throws Exception {
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExportCache.ArtifactWriter slowWriter = out -> {
+            renders.incrementAndGet();
+            rendering.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.write("rendered".getBytes());
+        };
+
+        List<Future<byte[]>> results = new ArrayList<>();
+        ExecutorService requests = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 4; i++) {
+                results.add(requests.submit(() -> {
+                    try (ExportCache.Entry entry = cache.getOrCreate("user:1:csv", slowWriter)) {
+                        return Files.readAllBytes(entry.getPath());
+                    }
+                }));
+            }
+            assertTrue(rendering.await(10, TimeUnit.SECONDS));
+            // Give the other requests time to find the render in progress
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<byte[]> result : results) {
+                assertArrayEquals("rendered".getBytes(), result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+        assertEquals(1, renders.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(3, cache.getHits());
+    }
+
+    @Test
+    void servingLinkOutlivesEviction() throws Exception {
+        byte[] first = new byte[700 * 1024];
+        first[0] = 1;
+        Path link;
+        try (ExportCache.Entry entry = cache.getOrCreate("first", out -> out.write(first))) {
+            link = cache.servingLink(entry).orElseThrow();
+        }
+        // Over the 1 MB limit, so the released first file is evicted
+        try (ExportCache.Entry entry = cache.getOrCreate("second", out -> out.write(new byte[700 * 1024]))) {
+            assertEquals(1, cache.getEvictions());
+            assertFalse(Files.exists(directory.resolve(ExportCache.digest("first"))));
+        }
+        assertArrayEquals(first, Files.readAllBytes(link));
+    }
+
+    @Test
+    void missStreamsToTheTeeAndHitDoesNot() throws Exception {
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        try (ExportCache.Entry entry = cache.getOrCreate("tee", out -> out.write("rows".getBytes()), () -> response)) {
+            assertTrue(entry.isStreamed());
+            assertArrayEquals("rows".getBytes(), response.toByteArray());
+            assertArrayEquals("rows".getBytes(), Files.readAllBytes(entry.getPath()));
+        }
+        try (ExportCache.Entry entry = cache.getOrCreate("tee", out -> out.write("again".getBytes()), () -> response)) {
+            assertFalse(entry.isStreamed());
+        }
+        assertArrayEquals("rows".getBytes(), response.toByteArray());
+    }
+}
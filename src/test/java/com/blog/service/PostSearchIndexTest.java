@@ -0,0 +1,50 @@
+package com.blog.service;
+
+import com.blog.model.Post;
+import com.blog.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Post content is indexed as the plain text HtmlText extracts, so entities and stray angle
+ * brackets neither add tokens nor hide the words around them.
+ */
+class PostSearchIndexTest {
+
+    private final PostSearchIndex index = new PostSearchIndex();
+
+    @Test
+    void entitiesAreDecodedBeforeTokenizing() {
+        index.index(post(1L, "<p>Fish &amp; chips</p>"));
+        assertEquals(List.of(1L), index.search("chips", null, true, 10).getPostIds());
+        assertEquals(List.of(), index.search("amp", null, true, 10).getPostIds());
+    }
+
+    @Test
+    void bareLessThanKeepsTheTextAfterIt() {
+        index.index(post(2L, "<p>When a < b the cache misses</p>"));
+        assertEquals(List.of(2L), index.search("cache misses", null, true, 10).getPostIds());
+    }
+
+    @Test
+    void markupIsNotIndexed() {
+        index.index(post(3L, "<p><a href=\"https://example.com/latency\">Link</a> text</p>"));
+        assertEquals(List.of(), index.search("href", null, true, 10).getPostIds());
+        assertEquals(List.of(), index.search("latency", null, true, 10).getPostIds());
+        assertEquals(List.of(3L), index.search("link", null, true, 10).getPostIds());
+    }
+
+    private static Post post(Long id, String content) {
+        User author = new User("indexed", "indexed@example.com", "{noop}password", "Indexed", "Author");
+        author.setId(1L);
+        Post post = new Post("Untitled", content, author);
+        post.setId(id);
+        post.setIsPublished(true);
+        post.setCreatedAt(LocalDateTime.now());
+        return post;
+    }
+}
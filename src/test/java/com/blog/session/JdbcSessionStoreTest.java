@@ -0,0 +1,89 @@
+package com.blog.session;
+
+import com.blog.dto.SessionUser;
+import com.blog.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips through the JDBC session store on H2, the database the rest of the tests use.
+ */
+class JdbcSessionStoreTest {
+
+    private EmbeddedDatabase database;
+    private JdbcSessionStore store;
+
+    @BeforeEach
+    void createStore() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        store = new JdbcSessionStore(new JdbcTemplate(database));
+        store.createTableIfMissing();
+        // A second node starting against the same database
+        store.createTableIfMissing();
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        database.shutdown();
+    }
+
+    @Test
+    void savedSessionLoadsWithItsAttributes() {
+        User user = new User("stored", "stored@example.com", "{noop}password", "Stored", "Session");
+        user.setId(7L);
+        StoredSession session = new StoredSession("session-1", 1_000L, 2_000L, 1800,
+                Map.of(SessionUser.SESSION_ATTRIBUTE, SessionUser.from(user), "theme", "dark"));
+        store.save(session);
+
+        StoredSession loaded = store.load("session-1").orElseThrow();
+        assertEquals(1_000L, loaded.getCreationTime());
+        assertEquals(2_000L, loaded.getLastAccessedTime());
+        assertEquals(1800, loaded.getMaxInactiveSeconds());
+        assertEquals("dark", loaded.getAttributes().get("theme"));
+        assertEquals(7L, ((SessionUser) loaded.getAttributes().get(SessionUser.SESSION_ATTRIBUTE)).getId());
+
+        // Saving again replaces the row
+        loaded.getAttributes().put("theme", "light");
+        store.save(loaded);
+        assertEquals("light", store.load("session-1").orElseThrow().getAttributes().get("theme"));
+    }
+
+    @Test
+    void touchOnlyMovesAccessTimesForward() {
+        store.save(new StoredSession("session-1", 1_000L, 5_000L, 60, Map.of()));
+        store.touch(Map.of("session-1", 4_000L));
+        assertEquals(5_000L, store.load("session-1").orElseThrow().getLastAccessedTime());
+        store.touch(Map.of("session-1", 9_000L));
+        assertEquals(9_000L, store.load("session-1").orElseThrow().getLastAccessedTime());
+    }
+
+    @Test
+    void expiredSessionsAreDeletedInBatches() {
+        for (int i = 0; i < 5; i++) {
+            // Expire at 2s + i ms
+            store.save(new StoredSession("expired-" + i, 0L, 1_000L + i, 1, Map.of()));
+        }
+        store.save(new StoredSession("live", 0L, 1_000L, 3600, Map.of()));
+        store.save(new StoredSession("forever", 0L, 1_000L, 0, Map.of()));
+
+        assertEquals(2, store.deleteExpired(10_000L, 2));
+        assertEquals(2, store.deleteExpired(10_000L, 2));
+        assertEquals(1, store.deleteExpired(10_000L, 2));
+        assertEquals(0, store.deleteExpired(10_000L, 2));
+        assertTrue(store.load("live").isPresent());
+        assertTrue(store.load("forever").isPresent());
+
+        store.delete("live");
+        assertTrue(store.load("live").isEmpty());
+    }
+}
@@ -0,0 +1,73 @@
+package com.blog.session;
+
+import com.blog.dto.SessionUser;
+import com.blog.model.User;
+import com.blog.repository.UserRepository;
+import com.blog.service.PasswordHashingService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * Signing in through the shared JDBC session store moves the session to a new id, so a
+ * session id planted in the browser beforehand does not end up authenticated.
+ */
+@SpringBootTest(properties = "blog.session.store=jdbc")
+@AutoConfigureMockMvc
+class SessionFixationTest {
+
+    private static final String COOKIE = "BLOGSESSION";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Test
+    void loginMovesThePlantedSessionToANewId() throws Exception {
+        User user = userRepository.save(new User("fixated", "fixated@example.com",
+                passwordHashingService.encode("secret-password"), "Fix", "Ated"));
+        long now = System.currentTimeMillis();
+        sessionStore.save(new StoredSession("planted-session-id", now, now, 1800, Map.of("theme", "dark")));
+
+        String setCookie = mockMvc.perform(post("/auth/login")
+                        .cookie(new Cookie(COOKIE, "planted-session-id"))
+                        .param("username", "fixated")
+                        .param("password", "secret-password"))
+                .andExpect(redirectedUrl("/dashboard"))
+                .andReturn().getResponse().getHeader(HttpHeaders.SET_COOKIE);
+
+        assertTrue(setCookie.startsWith(COOKIE + "="), setCookie);
+        String newId = setCookie.substring(COOKIE.length() + 1, setCookie.indexOf(';'));
+        assertNotEquals("planted-session-id", newId);
+        assertTrue(sessionStore.load("planted-session-id").isEmpty());
+
+        StoredSession signedIn = sessionStore.load(newId).orElseThrow();
+        assertEquals(user.getId(), ((SessionUser) signedIn.getAttributes().get(SessionUser.SESSION_ATTRIBUTE)).getId());
+        // Attributes from before the login carry over
+        assertEquals("dark", signedIn.getAttributes().get("theme"));
+
+        mockMvc.perform(get("/dashboard").cookie(new Cookie(COOKIE, "planted-session-id")))
+                .andExpect(redirectedUrl("/auth/login"));
+    }
+}